@@ -0,0 +1,53 @@
+package com.example.controller;
+
+import com.example.persistence.bulk.BookImportException;
+import com.example.persistence.bulk.BookImportService;
+import com.example.persistence.bulk.ImportResult;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 批量导入接口，请求体直接流式读取
+ *
+ * curl -X POST -H 'Content-Type: text/csv' --data-binary @books.csv localhost:8081/books/import
+ */
+@RestController
+public class BookImportController {
+
+    @Autowired
+    BookImportService importService;
+
+    @PostMapping(path = "/books/import", consumes = "text/csv")
+    public Map<String, Object> importCsv(HttpServletRequest request) throws IOException {
+        return toBody(importService.importCsv(request.getInputStream()));
+    }
+
+    @PostMapping(path = "/books/import", consumes = "application/x-ndjson")
+    public Map<String, Object> importNdjson(HttpServletRequest request) throws IOException {
+        return toBody(importService.importNdjson(request.getInputStream()));
+    }
+
+    @ExceptionHandler(BookImportException.class)
+    public ResponseEntity<Map<String, Object>> importFailed(BookImportException e) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", e.getMessage());
+        body.put("committedRows", e.getCommittedRows());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+    }
+
+    private static Map<String, Object> toBody(ImportResult result) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("rows", result.getRows());
+        body.put("elapsedMillis", result.getElapsedMillis());
+        body.put("rowsPerSecond", Math.round(result.getRowsPerSecond()));
+        return body;
+    }
+}
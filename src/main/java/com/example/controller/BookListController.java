@@ -0,0 +1,88 @@
+package com.example.controller;
+
+import com.example.persistence.bulk.BookExportService;
+import com.example.persistence.cache.CachingBookRepository;
+import com.example.persistence.guard.BookRepositoryUnavailableException;
+import com.example.persistence.guard.GuardedBookRepository;
+import com.example.persistence.model.Book;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Book 列表接口：键集分页、全量流式导出，以及经读穿缓存的按id、按书名查询
+ *
+ * 分页查询经 {@link GuardedBookRepository}，数据库变慢被限流或熔断时返回503。
+ */
+@RestController
+public class BookListController {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    @Autowired
+    GuardedBookRepository guardedRepo;
+
+    @Autowired
+    BookExportService exportService;
+
+    @Autowired
+    CachingBookRepository cachingRepo;
+
+    /**
+     * 返回 id 大于 after 的下一页，nextAfter 为下一页的 after 参数，没有更多数据时为 null
+     */
+    @GetMapping("/books")
+    public Map<String, Object> listBooks(@RequestParam(defaultValue = "0") long after,
+                                         @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Book> books = guardedRepo.findPage(after, new PageRequest(0, pageSize));
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("books", books);
+        body.put("nextAfter", books.size() < pageSize ? null : books.get(books.size() - 1).getId());
+        return body;
+    }
+
+    @GetMapping("/books/{id}")
+    public ResponseEntity<Book> getBook(@PathVariable long id) {
+        return cachingRepo.findOne(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @GetMapping("/books/search")
+    public List<Book> findByTitle(@RequestParam String title) {
+        return cachingRepo.findByTitle(title);
+    }
+
+    /**
+     * 以分块传输的JSON数组导出全部 Book
+     */
+    @GetMapping("/books/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks() {
+        StreamingResponseBody body = exportService::exportJson;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .body(body);
+    }
+
+    @ExceptionHandler(BookRepositoryUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public Map<String, Object> repositoryUnavailable(BookRepositoryUnavailableException e) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", e.getMessage());
+        return body;
+    }
+}
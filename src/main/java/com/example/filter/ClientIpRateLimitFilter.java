@@ -0,0 +1,119 @@
+package com.example.filter;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRuleManager;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.PostConstruct;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * 按客户端IP限流的过滤器
+ *
+ * 与 com.example.test 中的热点参数方案相同：一个资源、一条热点参数规则，参数为客户端IP。
+ * 客户端IP默认取连接的远端地址。开启 ratelimit.trust-forwarded-for 后，若远端地址是
+ * ratelimit.trusted-proxies 中配置的代理，则从 X-Forwarded-For 右端向左跳过可信代理，
+ * 取第一个不可信的地址，即最后一个可信代理追加的那一跳；左端的地址由客户端自己填写，不可信。
+ * 被限流的请求返回429。
+ */
+@Component
+@ConditionalOnProperty(name = "ratelimit.enabled", havingValue = "true", matchIfMissing = true)
+public class ClientIpRateLimitFilter extends OncePerRequestFilter {
+
+    static final String RESOURCE_NAME = "http_client_ip";
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    @Value("${ratelimit.qps:100}")
+    int qps;
+
+    @Value("${ratelimit.trust-forwarded-for:false}")
+    boolean trustForwardedFor;
+
+    // 逗号分隔的可信代理地址
+    @Value("${ratelimit.trusted-proxies:}")
+    String trustedProxyList;
+
+    private Set<String> trustedProxies = Collections.emptySet();
+
+    @PostConstruct
+    public void initRules() {
+        Set<String> proxies = new HashSet<>();
+        for (String proxy : trustedProxyList.split(",")) {
+            if (!proxy.trim().isEmpty()) {
+                proxies.add(proxy.trim());
+            }
+        }
+        trustedProxies = proxies;
+
+        ParamFlowRule rule = new ParamFlowRule(RESOURCE_NAME)
+                .setParamIdx(0)
+                .setGrade(RuleConstant.FLOW_GRADE_QPS)
+                .setCount(qps);
+
+        List<ParamFlowRule> rules = new ArrayList<>(ParamFlowRuleManager.getRules());
+        rules.removeIf(r -> RESOURCE_NAME.equals(r.getResource()));
+        rules.add(rule);
+        ParamFlowRuleManager.loadRules(rules);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String clientIp = resolveClientIp(request);
+
+        Entry entry = null;
+        try {
+            entry = SphU.entry(RESOURCE_NAME, EntryType.IN, 1, clientIp);
+        } catch (BlockException e) {
+            response.sendError(TOO_MANY_REQUESTS, "Too Many Requests");
+            return;
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            entry.exit(1, clientIp);
+        }
+    }
+
+    String resolveClientIp(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        if (!trustForwardedFor || !trustedProxies.contains(remoteAddr)) {
+            return remoteAddr;
+        }
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (forwardedFor == null || forwardedFor.isEmpty()) {
+            return remoteAddr;
+        }
+
+        String[] hops = forwardedFor.split(",");
+        String client = remoteAddr;
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (hop.isEmpty()) {
+                break;
+            }
+            client = hop;
+            if (!trustedProxies.contains(hop)) {
+                break;
+            }
+        }
+        return client;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.persistence.bulk;
+
+import com.example.persistence.model.Book;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 逐行读取 title,author 格式的CSV，每次只解析一条记录
+ *
+ * 支持RFC 4180的双引号字段（字段内可含逗号、换行，"" 表示一个双引号）。
+ * 第一行为 title,author 时视为表头跳过，空行忽略。
+ */
+public class BookCsvReader implements Iterator<Book> {
+
+    private final BufferedReader reader;
+    private final StringBuilder field = new StringBuilder();
+    private final List<String> fields = new ArrayList<>(2);
+    private long lineNumber;
+    private Book next;
+
+    public BookCsvReader(BufferedReader reader) {
+        this.reader = reader;
+        this.next = readRecord(true);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public Book next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        Book current = next;
+        next = readRecord(false);
+        return current;
+    }
+
+    private Book readRecord(boolean first) {
+        try {
+            while (true) {
+                String line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+                lineNumber++;
+                if (line.isEmpty()) {
+                    continue;
+                }
+
+                parseFields(line);
+                if (first && fields.size() == 2
+                        && "title".equalsIgnoreCase(fields.get(0).trim())
+                        && "author".equalsIgnoreCase(fields.get(1).trim())) {
+                    first = false;
+                    continue;
+                }
+                if (fields.size() != 2) {
+                    throw new IllegalArgumentException("第" + lineNumber + "行应为2列，实际" + fields.size() + "列");
+                }
+
+                Book book = new Book();
+                book.setTitle(fields.get(0));
+                book.setAuthor(fields.get(1));
+                return book;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void parseFields(String line) throws IOException {
+        fields.clear();
+        field.setLength(0);
+        boolean quoted = false;
+        int i = 0;
+
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    break;
+                }
+                // 引号内的换行属于字段内容，继续读下一行
+                String continuation = reader.readLine();
+                if (continuation == null) {
+                    throw new IllegalArgumentException("第" + lineNumber + "行引号未闭合");
+                }
+                lineNumber++;
+                field.append('\n');
+                line = continuation;
+                i = 0;
+                continue;
+            }
+
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.persistence.bulk;
+
+import com.example.persistence.model.Book;
+import com.example.persistence.repo.BookRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 流式导出全部 Book 为JSON数组
+ *
+ * 结果集按固定 fetch size 从游标读取，每写出一本书就从持久化上下文中 detach，
+ * 每 FLUSH_ROWS 行 flush 一次输出流（HTTP下即一个chunk），堆占用与表大小无关。
+ */
+@Service
+public class BookExportService {
+
+    // 输出流由调用方关闭
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    private static final int FLUSH_ROWS = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final BookRepository repository;
+
+    @Autowired
+    public BookExportService(BookRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * @return 导出的行数
+     */
+    @Transactional(readOnly = true)
+    public long exportJson(OutputStream out) throws IOException {
+        try (Stream<Book> books = repository.streamAllOrderById();
+             JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            long rows = 0;
+            Iterator<Book> iterator = books.iterator();
+            while (iterator.hasNext()) {
+                Book book = iterator.next();
+                writeBook(generator, book);
+                entityManager.detach(book);
+                if (++rows % FLUSH_ROWS == 0) {
+                    generator.flush();
+                }
+            }
+            generator.writeEndArray();
+            return rows;
+        }
+    }
+
+    static void writeBook(JsonGenerator generator, Book book) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", book.getId());
+        generator.writeStringField("title", book.getTitle());
+        generator.writeStringField("author", book.getAuthor());
+        generator.writeEndObject();
+    }
+}
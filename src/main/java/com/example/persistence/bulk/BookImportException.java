@@ -0,0 +1,20 @@
+package com.example.persistence.bulk;
+
+/**
+ * 批量导入中途失败，之前已提交的分块保留在库中
+ */
+public class BookImportException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long committedRows;
+
+    public BookImportException(String message, long committedRows, Throwable cause) {
+        super(message, cause);
+        this.committedRows = committedRows;
+    }
+
+    public long getCommittedRows() {
+        return committedRows;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.persistence.bulk;
+
+/**
+ * 一次批量导入的结果
+ */
+public class ImportResult {
+
+    private final long rows;
+    private final long elapsedMillis;
+
+    public ImportResult(long rows, long elapsedMillis) {
+        this.rows = rows;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? rows * 1000.0 : rows * 1000.0 / elapsedMillis;
+    }
+}
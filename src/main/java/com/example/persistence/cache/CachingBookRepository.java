@@ -0,0 +1,124 @@
+package com.example.persistence.cache;
+
+import com.example.persistence.model.Book;
+import com.example.persistence.repo.BookRepository;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * BookRepository 前的读穿缓存，按id和按书名各一份 {@link SegmentedLruCache}
+ *
+ * 未命中时查库并回填，save/delete 写库后失效受影响的id和书名（包括修改前的书名）。
+ * 书名查询结果为空也会缓存，新增同名书时随 save 一起失效。
+ * 缓存直接返回实体对象，调用方修改后应通过 save 写回；书名缓存命中时校验书名，
+ * 发现实体在缓存外被改了书名则丢弃该项重新查库。
+ */
+@Component
+public class CachingBookRepository {
+
+    private final BookRepository repository;
+    private final SegmentedLruCache<Long, Book> byId;
+    private final SegmentedLruCache<String, List<Book>> byTitle;
+
+    @Autowired
+    public CachingBookRepository(BookRepository repository,
+                                 @Value("${book.cache.maximum-size:10000}") int maximumSize) {
+        this.repository = repository;
+        this.byId = new SegmentedLruCache<>(maximumSize);
+        this.byTitle = new SegmentedLruCache<>(maximumSize);
+    }
+
+    public Optional<Book> findOne(long id) {
+        Book cached = byId.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        long stamp = byId.stamp(id);
+        Optional<Book> loaded = repository.findOne(id);
+        loaded.ifPresent(book -> byId.putIfUnchanged(id, book, stamp));
+        return loaded;
+    }
+
+    public List<Book> findByTitle(String title) {
+        List<Book> cached = byTitle.get(title);
+        if (cached != null) {
+            if (titlesMatch(cached, title)) {
+                return cached;
+            }
+            byTitle.invalidate(title);
+        }
+
+        long stamp = byTitle.stamp(title);
+        List<Book> loaded = repository.findByTitle(title);
+        byTitle.putIfUnchanged(title, loaded, stamp);
+        return loaded;
+    }
+
+    public Book save(Book book) {
+        String previousTitle = book.getId() == 0 ? null : previousTitle(book.getId());
+        Book saved = repository.save(book);
+
+        byId.invalidate(saved.getId());
+        byTitle.invalidate(saved.getTitle());
+        if (previousTitle != null && !previousTitle.equals(saved.getTitle())) {
+            byTitle.invalidate(previousTitle);
+        }
+        return saved;
+    }
+
+    public void delete(Book book) {
+        String previousTitle = previousTitle(book.getId());
+        repository.delete(book);
+
+        byId.invalidate(book.getId());
+        byTitle.invalidate(book.getTitle());
+        if (previousTitle != null) {
+            byTitle.invalidate(previousTitle);
+        }
+    }
+
+    public void delete(long id) {
+        String previousTitle = previousTitle(id);
+        repository.delete(id);
+
+        byId.invalidate(id);
+        if (previousTitle != null) {
+            byTitle.invalidate(previousTitle);
+        }
+    }
+
+    public SegmentedLruCache<Long, Book> getIdCache() {
+        return byId;
+    }
+
+    public SegmentedLruCache<String, List<Book>> getTitleCache() {
+        return byTitle;
+    }
+
+    public void invalidateAll() {
+        byId.invalidateAll();
+        byTitle.invalidateAll();
+    }
+
+    // 写库前取修改前的书名：优先用缓存中的实体，未缓存时查库
+    private String previousTitle(long id) {
+        Book cached = byId.peek(id);
+        if (cached != null) {
+            return cached.getTitle();
+        }
+        return repository.findOne(id).map(Book::getTitle).orElse(null);
+    }
+
+    private static boolean titlesMatch(List<Book> books, String title) {
+        for (Book book : books) {
+            if (!title.equals(book.getTitle())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.persistence.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 分段LRU（SLRU）缓存，按键哈希分成多个独立加锁的段
+ *
+ * 每段分为试用区和保护区：新写入的键进入试用区，在试用区再次命中后晋升到保护区；
+ * 保护区满时最久未访问的键降回试用区，试用区满时淘汰最久未访问的键。
+ * 只被访问一次的键（扫描、长尾）不会挤掉反复命中的热点键。
+ *
+ * 读穿加载与失效可能交错：先取 {@link #stamp(Object)}，加载完成后用
+ * {@link #putIfUnchanged(Object, Object, long)} 写入，期间该段有过失效则放弃写入，避免缓存旧值。
+ */
+public class SegmentedLruCache<K, V> {
+
+    // 保护区占每段容量的比例
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private final Segment<K, V>[] segments;
+    private final int segmentMask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SegmentedLruCache(int maximumSize) {
+        this(maximumSize, 16);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public SegmentedLruCache(int maximumSize, int concurrencyLevel) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("缓存容量必须大于0: " + maximumSize);
+        }
+        int segmentCount = Integer.highestOneBit(Math.max(1, Math.min(concurrencyLevel, maximumSize)));
+        int perSegment = (maximumSize + segmentCount - 1) / segmentCount;
+
+        segments = (Segment<K, V>[]) new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(perSegment, evictions);
+        }
+        segmentMask = segmentCount - 1;
+    }
+
+    public V get(K key) {
+        V value = segmentFor(key).get(key);
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    /**
+     * 查找但不计入命中/未命中统计，用于写路径
+     */
+    public V peek(K key) {
+        return segmentFor(key).get(key);
+    }
+
+    public void put(K key, V value) {
+        segmentFor(key).put(key, value);
+    }
+
+    /**
+     * 读穿加载前调用，返回该键所在段的失效版本号
+     */
+    public long stamp(K key) {
+        return segmentFor(key).stamp();
+    }
+
+    /**
+     * 自 stamp 之后该段没有失效过才写入
+     *
+     * @return 是否写入
+     */
+    public boolean putIfUnchanged(K key, V value, long stamp) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            if (segment.stamp != stamp) {
+                return false;
+            }
+            segment.put(key, value);
+            return true;
+        }
+    }
+
+    public void invalidate(K key) {
+        segmentFor(key).invalidate(key);
+    }
+
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return segments[(h * 0x9E3779B9 >>> 16) & segmentMask];
+    }
+
+    private static final class Segment<K, V> {
+
+        private final int probationCapacity;
+        private final int protectedCapacity;
+        private final LongAdder evictions;
+        // accessOrder=true：迭代顺序从最久未访问到最近访问
+        private final LinkedHashMap<K, V> probation = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<K, V> protectedArea = new LinkedHashMap<>(16, 0.75f, true);
+        private long stamp;
+
+        Segment(int capacity, LongAdder evictions) {
+            this.evictions = evictions;
+            protectedCapacity = (int) (capacity * PROTECTED_RATIO);
+            probationCapacity = Math.max(1, capacity - protectedCapacity);
+        }
+
+        synchronized V get(K key) {
+            V value = protectedArea.get(key);
+            if (value != null) {
+                return value;
+            }
+            value = probation.remove(key);
+            if (value != null) {
+                promote(key, value);
+            }
+            return value;
+        }
+
+        synchronized void put(K key, V value) {
+            if (protectedArea.containsKey(key)) {
+                protectedArea.put(key, value);
+                return;
+            }
+            probation.put(key, value);
+            trimProbation();
+        }
+
+        synchronized void invalidate(K key) {
+            protectedArea.remove(key);
+            probation.remove(key);
+            stamp++;
+        }
+
+        synchronized void clear() {
+            protectedArea.clear();
+            probation.clear();
+            stamp++;
+        }
+
+        synchronized long stamp() {
+            return stamp;
+        }
+
+        synchronized int size() {
+            return protectedArea.size() + probation.size();
+        }
+
+        private void promote(K key, V value) {
+            if (protectedCapacity == 0) {
+                probation.put(key, value);
+                return;
+            }
+            protectedArea.put(key, value);
+            if (protectedArea.size() > protectedCapacity) {
+                Iterator<Map.Entry<K, V>> eldest = protectedArea.entrySet().iterator();
+                Map.Entry<K, V> demoted = eldest.next();
+                eldest.remove();
+                probation.put(demoted.getKey(), demoted.getValue());
+                trimProbation();
+            }
+        }
+
+        private void trimProbation() {
+            Iterator<Map.Entry<K, V>> eldest = probation.entrySet().iterator();
+            while (probation.size() > probationCapacity) {
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.persistence.guard;
+
+/**
+ * Book 仓库调用被Sentinel拒绝（并发超限或熔断中）
+ *
+ * 过载时拒绝很频繁，不填充调用栈。
+ */
+public class BookRepositoryUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public BookRepositoryUnavailableException(String resource, Throwable cause) {
+        super("资源繁忙或已熔断: " + resource, cause, false, false);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.persistence.guard;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.Tracer;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.example.persistence.model.Book;
+import com.example.persistence.repo.BookRepository;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+/**
+ * 用Sentinel保护的 BookRepository 访问
+ *
+ * 读、写各一个资源，每个资源一条并发线程数限流（FLOW_GRADE_THREAD）和一条慢调用比例熔断规则：
+ * 后端变慢时，超过并发上限的调用立即拒绝而不是堆积在连接池上；
+ * 统计窗口内慢调用比例超过阈值则熔断一段时间，之后放行探测请求，恢复正常才关闭熔断。
+ * 被拒绝时抛出 {@link BookRepositoryUnavailableException}。
+ */
+@Component
+public class GuardedBookRepository {
+
+    public static final String READ_RESOURCE = "book_repo_read";
+    public static final String WRITE_RESOURCE = "book_repo_write";
+    private static final List<String> RESOURCES = Arrays.asList(READ_RESOURCE, WRITE_RESOURCE);
+
+    private final BookRepository repository;
+
+    @Value("${book.guard.max-concurrency:20}")
+    int maxConcurrency;
+
+    @Value("${book.guard.slow-rt-ms:200}")
+    int slowRtMillis;
+
+    @Value("${book.guard.slow-ratio:0.5}")
+    double slowRatio;
+
+    @Value("${book.guard.break-seconds:5}")
+    int breakSeconds;
+
+    @Autowired
+    public GuardedBookRepository(BookRepository repository) {
+        this.repository = repository;
+    }
+
+    @PostConstruct
+    public void initRules() {
+        List<FlowRule> flowRules = new ArrayList<>(FlowRuleManager.getRules());
+        flowRules.removeIf(rule -> RESOURCES.contains(rule.getResource()));
+        List<DegradeRule> degradeRules = new ArrayList<>(DegradeRuleManager.getRules());
+        degradeRules.removeIf(rule -> RESOURCES.contains(rule.getResource()));
+
+        for (String resource : RESOURCES) {
+            FlowRule flowRule = new FlowRule(resource);
+            flowRule.setGrade(RuleConstant.FLOW_GRADE_THREAD);
+            flowRule.setCount(maxConcurrency);
+            flowRules.add(flowRule);
+
+            DegradeRule degradeRule = new DegradeRule(resource)
+                    .setGrade(RuleConstant.DEGRADE_GRADE_RT)
+                    .setCount(slowRtMillis)
+                    .setSlowRatioThreshold(slowRatio)
+                    .setTimeWindow(breakSeconds)
+                    .setMinRequestAmount(10)
+                    .setStatIntervalMs(1000);
+            degradeRules.add(degradeRule);
+        }
+
+        FlowRuleManager.loadRules(flowRules);
+        DegradeRuleManager.loadRules(degradeRules);
+    }
+
+    public Optional<Book> findOne(long id) {
+        return call(READ_RESOURCE, () -> repository.findOne(id));
+    }
+
+    public List<Book> findByTitle(String title) {
+        return call(READ_RESOURCE, () -> repository.findByTitle(title));
+    }
+
+    public List<Book> findPage(long afterId, Pageable pageable) {
+        return call(READ_RESOURCE, () -> repository.findByIdGreaterThanOrderByIdAsc(afterId, pageable));
+    }
+
+    public Book save(Book book) {
+        return call(WRITE_RESOURCE, () -> repository.save(book));
+    }
+
+    private static <T> T call(String resource, Supplier<T> action) {
+        Entry entry;
+        try {
+            entry = SphU.entry(resource);
+        } catch (BlockException e) {
+            throw new BookRepositoryUnavailableException(resource, e);
+        }
+
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            // 计入异常数，异常比例类熔断规则依赖它
+            Tracer.traceEntry(e, entry);
+            throw e;
+        } finally {
+            entry.exit();
+        }
+    }
+}
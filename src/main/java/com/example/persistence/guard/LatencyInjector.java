@@ -0,0 +1,51 @@
+package com.example.persistence.guard;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * 故障注入：Hibernate 每条SQL在准备语句时先等待设定的延迟，模拟数据库变慢
+ *
+ * 不在 application.properties 中注册，需要的基准测试启动应用时通过
+ * --spring.jpa.properties.hibernate.session_factory.statement_inspector 传入；延迟为静态配置，默认0不生效。
+ * 等待时已占用连接池中的连接，连接池耗尽后后续请求会排队，与真实的慢库表现一致。
+ */
+public class LatencyInjector implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private static volatile long delayNanos;
+    private static volatile long jitterNanos;
+
+    /**
+     * @param delayMillis  固定延迟
+     * @param jitterMillis 额外的 0 ~ jitterMillis 均匀随机延迟
+     */
+    public static void setLatency(long delayMillis, long jitterMillis) {
+        delayNanos = TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        jitterNanos = TimeUnit.MILLISECONDS.toNanos(jitterMillis);
+    }
+
+    public static void clear() {
+        setLatency(0, 0);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        long delay = delayNanos;
+        long jitter = jitterNanos;
+        if (jitter > 0) {
+            delay += ThreadLocalRandom.current().nextLong(jitter);
+        }
+        if (delay > 0) {
+            long deadline = System.nanoTime() + delay;
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(remaining);
+            }
+        }
+        return sql;
+    }
+}
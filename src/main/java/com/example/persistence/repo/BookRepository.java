@@ -8,6 +8,11 @@ package com.example.persistence.repo;
 import com.example.persistence.model.Book;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
 /**
@@ -19,4 +24,19 @@ public interface BookRepository extends CrudRepository<Book, Long> {
     List<Book> findByTitle(String title);
 
     Optional<Book> findOne(long id);
+
+    /**
+     * 键集分页：取 id 大于 afterId 的下一页，翻页代价与页码无关
+     */
+    List<Book> findByIdGreaterThanOrderByIdAsc(long afterId, Pageable pageable);
+
+    /**
+     * 按 id 顺序流式读取全表，须在只读事务内消费并关闭
+     */
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("select b from Book b order by b.id")
+    Stream<Book> streamAllOrderById();
 }
@@ -0,0 +1,31 @@
+package com.example.test;
+
+import com.example.config.Application;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 在基准测试进程内启动应用上下文（不启动Web容器、不加载限流过滤器），用于直接压测持久层
+ *
+ * Spring 4.3 的 cglib 需要反射访问 ClassLoader.defineClass，JDK 16+ 上fork需加
+ * --add-opens java.base/java.lang=ALL-UNNAMED。
+ */
+public final class AppContextSupport {
+
+    private AppContextSupport() {
+    }
+
+    public static ConfigurableApplicationContext start(String... args) {
+        // devtools会在新的类加载器中重启应用，压测时关闭
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        String[] allArgs = new String[args.length + 1];
+        allArgs[0] = "--ratelimit.enabled=false";
+        System.arraycopy(args, 0, allArgs, 1, args.length);
+
+        return new SpringApplicationBuilder(Application.class)
+                .web(false)
+                .logStartupInfo(false)
+                .run(allArgs);
+    }
+}
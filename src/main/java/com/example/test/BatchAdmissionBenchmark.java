@@ -0,0 +1,135 @@
+package com.example.test;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量准入的基准测试：逐个 allowRequest vs allowRequests
+ *
+ * 每次调用处理一个批次，主指标为批次吞吐，辅助计数器 requests/admitted 给出每秒处理和放行的请求数，
+ * 可直接在不同 batchSize 之间比较。IP取自较小的集合，模拟事件循环中同一批次里重复出现的客户端。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(8)
+public class BatchAdmissionBenchmark {
+
+    @Param({"1", "8", "64", "512"})
+    private int batchSize;
+
+    @Param({"INDEPENDENT", "HOTSPOT", "CIDR", "LOCAL_BUCKET"})
+    private String strategyType;
+
+    @Param({"SINGLE", "BATCH"})
+    private String api;
+
+    @Param({"200"})
+    private int ipCount;
+
+    @Param({"1000"})
+    private int defaultQps;
+
+    @Param({"UNIFORM"})
+    private String trafficDistribution;
+
+    private List<String> ipAddresses;
+    private TrafficDistribution traffic;
+    private ComparisonPerformanceTest.RateLimitStrategy strategy;
+    private boolean batchApi;
+
+    @State(Scope.Thread)
+    public static class Batch {
+        String[] ips;
+        boolean[] results;
+
+        @Setup(Level.Trial)
+        public void setup(BatchAdmissionBenchmark benchmark) {
+            ips = new String[benchmark.batchSize];
+            results = new boolean[benchmark.batchSize];
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RequestCounters {
+        public long requests;
+        public long admitted;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            requests = 0;
+            admitted = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ipAddresses = new ArrayList<>(ipCount);
+        for (int i = 0; i < ipCount; i++) {
+            ipAddresses.add(String.format("192.168.%d.%d", (i / 256) % 256, i % 256));
+        }
+
+        traffic = TrafficDistribution.parse(trafficDistribution, ipCount);
+        batchApi = "BATCH".equals(api);
+        strategy = ComparisonPerformanceTest.createStrategy(strategyType);
+        strategy.initRules(ipAddresses, defaultQps);
+    }
+
+    @Benchmark
+    public void admitBatch(Batch batch, RequestCounters counters, Blackhole blackhole) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now = System.nanoTime();
+        String[] ips = batch.ips;
+        boolean[] results = batch.results;
+        for (int i = 0; i < ips.length; i++) {
+            ips[i] = ipAddresses.get(traffic.next(now, random.nextLong()));
+        }
+
+        if (batchApi) {
+            strategy.allowRequests(ips, results);
+        } else {
+            for (int i = 0; i < ips.length; i++) {
+                results[i] = strategy.allowRequest(ips[i]);
+            }
+        }
+
+        int admitted = 0;
+        for (boolean result : results) {
+            if (result) {
+                admitted++;
+            }
+        }
+        counters.requests += ips.length;
+        counters.admitted += admitted;
+        blackhole.consume(admitted);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        strategy.clearRules();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BatchAdmissionBenchmark.class.getSimpleName())
+                .shouldDoGC(true)
+                .result("batch_admission_results.json")
+                .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.JSON)
+                .build();
+
+        new Runner(options).run();
+    }
+}
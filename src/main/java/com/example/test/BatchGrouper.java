@@ -0,0 +1,118 @@
+package com.example.test;
+
+/**
+ * 批量准入时按键合并重复请求的辅助类
+ *
+ * 每个线程复用一个实例：依次 add 批次中每个请求的键（IP、资源名或前缀），相同的键归为一组，
+ * 策略按组一次性申请 count 个许可，再用 admit 把结果按原顺序写回各请求。
+ * 内部为开放寻址表加数组链表，批次大小不变时不分配对象。
+ */
+final class BatchGrouper {
+
+    private static final ThreadLocal<BatchGrouper> LOCAL = ThreadLocal.withInitial(BatchGrouper::new);
+    private static final Object NULL_KEY = new Object();
+
+    private Object[] tableKeys = new Object[16];
+    private int[] tableGroups = new int[16];
+
+    private Object[] groupKeys = new Object[8];
+    private int[] groupSlots = new int[8];
+    private int[] groupCounts = new int[8];
+    private int[] groupHeads = new int[8];
+    private int[] groupTails = new int[8];
+    private int[] nextMembers = new int[8];
+
+    private int groupCount;
+    private int size;
+
+    /**
+     * 取当前线程的实例并清空，expectedSize 为批次大小
+     */
+    static BatchGrouper start(int expectedSize) {
+        BatchGrouper grouper = LOCAL.get();
+        grouper.reset(expectedSize);
+        return grouper;
+    }
+
+    private void reset(int expectedSize) {
+        for (int g = 0; g < groupCount; g++) {
+            tableKeys[groupSlots[g]] = null;
+            groupKeys[g] = null;
+        }
+        groupCount = 0;
+        size = 0;
+
+        if (tableKeys.length < expectedSize * 2) {
+            int capacity = Integer.highestOneBit(expectedSize * 2 - 1) << 1;
+            tableKeys = new Object[capacity];
+            tableGroups = new int[capacity];
+        }
+        if (nextMembers.length < expectedSize) {
+            groupKeys = new Object[expectedSize];
+            groupSlots = new int[expectedSize];
+            groupCounts = new int[expectedSize];
+            groupHeads = new int[expectedSize];
+            groupTails = new int[expectedSize];
+            nextMembers = new int[expectedSize];
+        }
+    }
+
+    /**
+     * 加入批次中的下一个请求，key 为 null 的请求归为同一组
+     */
+    void add(Object key) {
+        Object k = key == null ? NULL_KEY : key;
+        int mask = tableKeys.length - 1;
+        int slot = mix(k.hashCode()) & mask;
+
+        Object existing;
+        while ((existing = tableKeys[slot]) != null) {
+            if (existing.equals(k)) {
+                int group = tableGroups[slot];
+                nextMembers[groupTails[group]] = size;
+                groupTails[group] = size;
+                groupCounts[group]++;
+                nextMembers[size++] = -1;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int group = groupCount++;
+        tableKeys[slot] = k;
+        tableGroups[slot] = group;
+        groupKeys[group] = key;
+        groupSlots[group] = slot;
+        groupCounts[group] = 1;
+        groupHeads[group] = size;
+        groupTails[group] = size;
+        nextMembers[size++] = -1;
+    }
+
+    int groupCount() {
+        return groupCount;
+    }
+
+    Object key(int group) {
+        return groupKeys[group];
+    }
+
+    int count(int group) {
+        return groupCounts[group];
+    }
+
+    /**
+     * 组内前 granted 个请求（按加入顺序）放行，其余拒绝
+     */
+    void admit(int group, int granted, boolean[] out) {
+        int member = groupHeads[group];
+        for (int i = 0; member != -1; i++) {
+            out[member] = i < granted;
+            member = nextMembers[member];
+        }
+    }
+
+    private static int mix(int h) {
+        return h ^ (h >>> 16);
+    }
+}
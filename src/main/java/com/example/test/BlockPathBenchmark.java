@@ -0,0 +1,130 @@
+package com.example.test;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 放行/拒绝路径的单次调用开销：SphU（捕获 BlockException）、SphO（返回值）与预解析句柄三种调用方式对比
+ *
+ * 前 blockRatio% 的IP规则阈值为0，必然被拒绝，其余IP阈值极高，必然放行，拒绝比例与限流窗口无关。
+ * 请求顺序按固定种子打乱后轮询。设单次放行开销为a、拒绝开销为d，则 blockRatio=r 时的平均耗时约为
+ * (1-r)·a + r·d，0% 一档即放行开销，由 50%/95% 两档可以解出拒绝开销。
+ * 单线程运行，只比较调用方式本身，不掺入线程争用；main 中带 GCProfiler 观察每次调用的分配量。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Xms2g", "-XX:+UseG1GC"})
+@Threads(1)
+public class BlockPathBenchmark {
+
+    private static final int IP_COUNT = 100;
+    private static final int ALLOWED_QPS = 1_000_000_000;
+
+    @Param({"SPHU", "SPHO", "HANDLE"})
+    private String api;
+
+    @Param({"INDEPENDENT", "HOTSPOT"})
+    private String ruleType;
+
+    // 被拒绝请求的百分比
+    @Param({"0", "50", "95"})
+    private int blockRatio;
+
+    private String[] requestOrder;
+    private ComparisonPerformanceTest.RateLimitStrategy strategy;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<String> ips = new ArrayList<>(IP_COUNT);
+        for (int i = 0; i < IP_COUNT; i++) {
+            ips.add(String.format("198.51.100.%d", i));
+        }
+
+        strategy = createStrategy();
+        strategy.initRules(ips, ALLOWED_QPS);
+        int blocked = IP_COUNT * blockRatio / 100;
+        for (int i = 0; i < blocked; i++) {
+            strategy.updateRule(ips.get(i), 0);
+        }
+        verifyBlockedCount(ips, blocked);
+
+        List<String> order = new ArrayList<>(ips);
+        Collections.shuffle(order, new Random(42));
+        requestOrder = order.toArray(new String[0]);
+        cursor = 0;
+    }
+
+    /**
+     * 每个IP请求一次，被拒绝的数量应正好等于阈值改为0的IP数，否则各档的拒绝比例与参数不符
+     */
+    private void verifyBlockedCount(List<String> ips, int expected) {
+        int rejected = 0;
+        for (String ip : ips) {
+            if (!strategy.allowRequest(ip)) {
+                rejected++;
+            }
+        }
+        if (rejected != expected) {
+            throw new IllegalStateException(String.format("%s/%s 拒绝了 %d 个IP，预期 %d 个",
+                    ruleType, api, rejected, expected));
+        }
+    }
+
+    private ComparisonPerformanceTest.RateLimitStrategy createStrategy() {
+        // 热点策略不设例外项，避免前10%的IP带上50~200的阈值干扰拒绝比例
+        switch (ruleType + "_" + api) {
+            case "INDEPENDENT_SPHU":
+                return new ComparisonPerformanceTest.IndependentRuleStrategy();
+            case "INDEPENDENT_SPHO":
+                return new ComparisonPerformanceTest.SphOIndependentStrategy();
+            case "INDEPENDENT_HANDLE":
+                return new ComparisonPerformanceTest.HandleIndependentStrategy();
+            case "HOTSPOT_SPHU":
+                return new ComparisonPerformanceTest.HotspotParamStrategy(0);
+            case "HOTSPOT_SPHO":
+                return new ComparisonPerformanceTest.SphOHotspotStrategy(0);
+            case "HOTSPOT_HANDLE":
+                return new ComparisonPerformanceTest.HandleHotspotStrategy(0);
+            default:
+                throw new IllegalArgumentException("未知的组合: " + ruleType + "/" + api);
+        }
+    }
+
+    @Benchmark
+    public boolean admit() {
+        int index = cursor;
+        cursor = index + 1 == IP_COUNT ? 0 : index + 1;
+        return strategy.allowRequest(requestOrder[index]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        strategy.clearRules();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BlockPathBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .shouldDoGC(true)
+                .result("block_path_results.json")
+                .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.JSON)
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.test;
+
+import com.example.persistence.cache.CachingBookRepository;
+import com.example.persistence.cache.SegmentedLruCache;
+import com.example.persistence.model.Book;
+import com.example.persistence.repo.BookRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Book 查询的读穿缓存基准测试：直接查 BookRepository vs 经 CachingBookRepository
+ *
+ * 键按 trafficDistribution 选取（默认Zipf），缓存容量小于书的总数，考察淘汰策略在偏斜访问下的命中率。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"--add-opens", "java.base/java.lang=ALL-UNNAMED"})
+@Threads(8)
+public class BookCacheBenchmark {
+
+    @Param({"UNCACHED", "CACHED"})
+    private String mode;
+
+    @Param({"ID", "TITLE"})
+    private String lookup;
+
+    @Param({"10000"})
+    private int bookCount;
+
+    @Param({"1000"})
+    private int cacheSize;
+
+    @Param({"ZIPF:0.99"})
+    private String trafficDistribution;
+
+    private ConfigurableApplicationContext context;
+    private BookRepository repository;
+    private CachingBookRepository cachingRepository;
+    private TrafficDistribution traffic;
+    private long[] ids;
+    private String[] titles;
+    private boolean cached;
+    private boolean byId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = AppContextSupport.start("--book.cache.maximum-size=" + cacheSize);
+        repository = context.getBean(BookRepository.class);
+        cachingRepository = context.getBean(CachingBookRepository.class);
+
+        List<Book> books = new ArrayList<>(bookCount);
+        for (int i = 0; i < bookCount; i++) {
+            Book book = new Book();
+            book.setTitle("book-" + i);
+            book.setAuthor("author-" + (i % 100));
+            books.add(book);
+        }
+        ids = new long[bookCount];
+        titles = new String[bookCount];
+        int i = 0;
+        for (Book saved : repository.save(books)) {
+            ids[i] = saved.getId();
+            titles[i] = saved.getTitle();
+            i++;
+        }
+
+        traffic = TrafficDistribution.parse(trafficDistribution, bookCount);
+        cached = "CACHED".equals(mode);
+        byId = "ID".equals(lookup);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStats() {
+        cachingRepository.getIdCache().resetStats();
+        cachingRepository.getTitleCache().resetStats();
+    }
+
+    @Benchmark
+    public Object findBook() {
+        int rank = traffic.next();
+        if (byId) {
+            return cached ? cachingRepository.findOne(ids[rank]) : repository.findOne(ids[rank]);
+        }
+        return cached ? cachingRepository.findByTitle(titles[rank]) : repository.findByTitle(titles[rank]);
+    }
+
+    @TearDown(Level.Iteration)
+    public void printCacheStats() {
+        if (cached) {
+            SegmentedLruCache<?, ?> cache = byId ? cachingRepository.getIdCache() : cachingRepository.getTitleCache();
+            System.out.printf("%n缓存命中率: %.2f%% (命中 %,d, 未命中 %,d, 淘汰 %,d, 当前条目 %,d)%n",
+                    cache.getHitRate() * 100, cache.getHitCount(), cache.getMissCount(),
+                    cache.getEvictionCount(), cache.size());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BookCacheBenchmark.class.getSimpleName())
+                .shouldDoGC(true)
+                .result("book_cache_results.json")
+                .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.JSON)
+                .build();
+
+        new Runner(options).run();
+    }
+}
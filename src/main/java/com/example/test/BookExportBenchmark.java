@@ -0,0 +1,174 @@
+package com.example.test;
+
+import com.example.persistence.bulk.BookExportService;
+import com.example.persistence.bulk.BookImportService;
+import com.example.persistence.model.Book;
+import com.example.persistence.repo.BookRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Book 全量导出基准测试：findAll 后整体序列化 vs 游标流式导出
+ *
+ * 单次计时整个导出，另以辅助指标导出首字节时间 firstByteMs 和峰值堆增量 peakHeapMb
+ * （除Eden外各堆内存池峰值之和相对导出前的增长，反映导出过程中存活的对象量；H2内存库本身的数据不计入）。
+ * 首字节按输出流第一次带着数据被 flush 计时，即 HTTP 下第一个chunk发出的时刻，
+ * 而不是序列化器内部缓冲区第一次写满。输出写入只计数的流，不占内存。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g", "-XX:+UseG1GC", "--add-opens", "java.base/java.lang=ALL-UNNAMED"})
+public class BookExportBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int rows;
+
+    @Param({"FIND_ALL", "STREAM"})
+    private String method;
+
+    private ConfigurableApplicationContext context;
+    private BookRepository repository;
+    private BookExportService exportService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private long baselineHeapBytes;
+
+    /**
+     * 每次导出的首字节时间和峰值堆增量，SingleShotTime 下每次迭代只调用一次
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ExportMetrics {
+        public double firstByteMs;
+        public double peakHeapMb;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = AppContextSupport.start();
+        repository = context.getBean(BookRepository.class);
+        exportService = context.getBean(BookExportService.class);
+        context.getBean(BookImportService.class).importBooks(generateBooks(rows));
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPeaks() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            pool.resetPeakUsage();
+        }
+        baselineHeapBytes = peakHeapBytes();
+    }
+
+    @Benchmark
+    public long export(ExportMetrics metrics) throws IOException {
+        FirstFlushOutputStream out = new FirstFlushOutputStream();
+        if ("STREAM".equals(method)) {
+            exportService.exportJson(out);
+        } else {
+            Iterable<Book> books = repository.findAll();
+            objectMapper.writeValue(out, books);
+        }
+
+        metrics.firstByteMs = (out.firstFlushNanos - out.startNanos) / 1e6;
+        metrics.peakHeapMb = (peakHeapBytes() - baselineHeapBytes) / (1024.0 * 1024.0);
+        // 两种方式都返回写出的字节数
+        return out.bytes;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private static long peakHeapBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && !pool.getName().contains("Eden")) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static Iterator<Book> generateBooks(int count) {
+        return new Iterator<Book>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public Book next() {
+                if (next >= count) {
+                    throw new NoSuchElementException();
+                }
+                Book book = new Book();
+                book.setTitle("book-" + next);
+                book.setAuthor("author-" + next % 1000);
+                next++;
+                return book;
+            }
+        };
+    }
+
+    /**
+     * 丢弃输出，记录第一次有数据时 flush 的时间；没有 flush 就关闭时以关闭时间计
+     */
+    private static final class FirstFlushOutputStream extends OutputStream {
+        final long startNanos = System.nanoTime();
+        long firstFlushNanos;
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+
+        @Override
+        public void flush() {
+            if (firstFlushNanos == 0 && bytes > 0) {
+                firstFlushNanos = System.nanoTime();
+            }
+        }
+
+        @Override
+        public void close() {
+            flush();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BookExportBenchmark.class.getSimpleName())
+                .shouldDoGC(true)
+                .result("book_export_results.json")
+                .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.JSON)
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.test;
+
+import com.example.persistence.bulk.BookImportService;
+import com.example.persistence.bulk.ImportResult;
+import com.example.persistence.model.Book;
+import com.example.persistence.repo.BookRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Book 导入基准测试：逐行 CrudRepository.save vs 流式CSV批量导入
+ *
+ * 每次迭代清空表后导入 rows 行，单次计时；迭代结束打印每秒行数。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "--add-opens", "java.base/java.lang=ALL-UNNAMED"})
+public class BookImportBenchmark {
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    @Param({"SAVE_LOOP", "BULK_CSV"})
+    private String method;
+
+    private ConfigurableApplicationContext context;
+    private BookRepository repository;
+    private BookImportService importService;
+    private JdbcTemplate jdbcTemplate;
+    private byte[] csv;
+    private long elapsedNanos;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = AppContextSupport.start();
+        repository = context.getBean(BookRepository.class);
+        importService = context.getBean(BookImportService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        StringBuilder builder = new StringBuilder("title,author\n");
+        for (int i = 0; i < rows; i++) {
+            builder.append("book-").append(i).append(",author-").append(i % 1000).append('\n');
+        }
+        csv = builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() {
+        jdbcTemplate.execute("DELETE FROM book");
+    }
+
+    @Benchmark
+    public long importBooks() {
+        long start = System.nanoTime();
+        long imported;
+        if ("BULK_CSV".equals(method)) {
+            ImportResult result = importService.importCsv(new ByteArrayInputStream(csv));
+            imported = result.getRows();
+        } else {
+            for (int i = 0; i < rows; i++) {
+                Book book = new Book();
+                book.setTitle("book-" + i);
+                book.setAuthor("author-" + i % 1000);
+                repository.save(book);
+            }
+            imported = rows;
+        }
+        elapsedNanos = System.nanoTime() - start;
+        return imported;
+    }
+
+    @TearDown(Level.Iteration)
+    public void printRate() {
+        System.out.printf("%n%s 导入 %,d 行: %.0f 行/秒%n", method, rows, rows * 1e9 / elapsedNanos);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BookImportBenchmark.class.getSimpleName())
+                .shouldDoGC(true)
+                .result("book_import_results.json")
+                .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.JSON)
+                .build();
+
+        new Runner(options).run();
+    }
+}
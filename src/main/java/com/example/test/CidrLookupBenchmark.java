@@ -0,0 +1,84 @@
+package com.example.test;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CIDR最长前缀匹配的基准测试
+ *
+ * 前缀长度分布模拟生产环境：少量 /8、/16 的大网段，大部分为 /24，其余为 /20 ~ /32 的零散前缀。
+ * 一半的查询地址取自已有前缀内部（命中较长前缀），另一半随机（多数只命中大网段或不命中）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class CidrLookupBenchmark {
+
+    private static final int LOOKUP_KEY_COUNT = 1 << 16;
+
+    @Param({"1000", "100000"})
+    private int prefixCount;
+
+    private Ipv4PrefixTrie trie;
+    private int[] lookupKeys;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        trie = new Ipv4PrefixTrie(prefixCount);
+        int[] inserted = new int[prefixCount];
+
+        for (int i = 0; i < prefixCount; i++) {
+            int length = randomLength(random);
+            int prefix = random.nextInt();
+            trie.insert(prefix, length, i);
+            inserted[i] = prefix;
+        }
+
+        lookupKeys = new int[LOOKUP_KEY_COUNT];
+        for (int i = 0; i < LOOKUP_KEY_COUNT; i++) {
+            lookupKeys[i] = i % 2 == 0 ? inserted[random.nextInt(prefixCount)] : random.nextInt();
+        }
+
+        System.out.printf("%n前缀trie构建完成: 前缀数=%d, 节点数=%d%n",
+                trie.getPrefixCount(), trie.getNodeCount());
+    }
+
+    @Benchmark
+    public int lookup() {
+        return trie.lookup(lookupKeys[ThreadLocalRandom.current().nextInt(LOOKUP_KEY_COUNT)]);
+    }
+
+    private static int randomLength(Random random) {
+        int p = random.nextInt(100);
+        if (p < 1) {
+            return 8;
+        } else if (p < 5) {
+            return 16;
+        } else if (p < 70) {
+            return 24;
+        }
+        return 20 + random.nextInt(13);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CidrLookupBenchmark.class.getSimpleName())
+                .result("cidr_lookup_results.json")
+                .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.JSON)
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.test;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRuleManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CIDR前缀限流策略
+ *
+ * 用 {@link Ipv4PrefixTrie} 把IP最长前缀匹配到一个限流槽位，每个槽位对应一个前缀，
+ * 同一前缀下所有IP共享该前缀的QPS（如 10.0.0.0/8 一个总阈值，个别 /24 单独覆盖）。
+ * 限流用一条热点参数规则实现，参数为前缀的规范字符串，各前缀的阈值作为例外项。
+ */
+public class CidrTrieStrategy implements ComparisonPerformanceTest.RateLimitStrategy {
+
+    private static final String RESOURCE_NAME = "cidr_prefix_resource";
+
+    // 重新初始化时整体替换，请求线程读一次引用即得到一致的前缀表
+    private volatile Prefixes prefixes = new Prefixes(new Ipv4PrefixTrie(), new String[0],
+            Collections.emptyMap(), null);
+
+    /**
+     * 一次初始化产生的前缀表，构建完成后不再修改
+     */
+    private static final class Prefixes {
+        final Ipv4PrefixTrie trie;
+        // 槽位 -> 规范前缀字符串（热点参数值），预先生成，请求路径上不分配
+        final String[] slotPrefixes;
+        final Map<String, Integer> prefixToSlot;
+        final HotspotExceptionStore exceptionStore;
+
+        Prefixes(Ipv4PrefixTrie trie, String[] slotPrefixes, Map<String, Integer> prefixToSlot,
+                 HotspotExceptionStore exceptionStore) {
+            this.trie = trie;
+            this.slotPrefixes = slotPrefixes;
+            this.prefixToSlot = prefixToSlot;
+            this.exceptionStore = exceptionStore;
+        }
+
+        String resolve(int packedIp) {
+            int slot = trie.lookup(packedIp);
+            return slot == Ipv4PrefixTrie.NO_MATCH ? null : slotPrefixes[slot];
+        }
+
+        // 非IPv4地址（如IPv6）不落在任何前缀上，与未匹配的IP一样拒绝
+        String resolve(String ip) {
+            int packedIp;
+            try {
+                packedIp = Ipv4.parse(ip);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+            return resolve(packedIp);
+        }
+    }
+
+    /**
+     * 每个IP作为一个 /32 前缀，语义与按IP限流的策略一致
+     */
+    public void initRules(List<String> ips, int defaultQps) {
+        Map<String, Integer> limits = new LinkedHashMap<>();
+        for (String ip : ips) {
+            limits.put(ip + "/32", defaultQps);
+        }
+        initPrefixes(limits, defaultQps);
+    }
+
+    /**
+     * 按前缀初始化
+     *
+     * @param prefixLimits 前缀（如 10.0.0.0/8）到QPS的映射
+     * @param defaultQps   热点参数规则的默认阈值，与之相同的前缀不生成例外项
+     */
+    public void initPrefixes(Map<String, Integer> prefixLimits, int defaultQps) {
+        Ipv4PrefixTrie newTrie = new Ipv4PrefixTrie(prefixLimits.size());
+        List<String> slotPrefixes = new ArrayList<>(prefixLimits.size());
+        Map<String, Integer> prefixToSlot = new HashMap<>();
+        HotspotExceptionStore store = new HotspotExceptionStore(RESOURCE_NAME, defaultQps);
+
+        for (Map.Entry<String, Integer> limit : prefixLimits.entrySet()) {
+            String prefix = normalize(limit.getKey());
+            Integer slot = prefixToSlot.get(prefix);
+            if (slot == null) {
+                slot = slotPrefixes.size();
+                slotPrefixes.add(prefix);
+                prefixToSlot.put(prefix, slot);
+                newTrie.insert(parsePrefix(prefix), parseLength(prefix), slot);
+            }
+            store.upsert(prefix, limit.getValue());
+        }
+
+        ParamFlowRuleManager.loadRules(Collections.singletonList(store.buildRule()));
+        store.attach();
+
+        prefixes = new Prefixes(newTrie, slotPrefixes.toArray(new String[0]),
+                Collections.unmodifiableMap(prefixToSlot), store);
+    }
+
+    public boolean allowRequest(String ip) {
+        return enter(prefixes.resolve(ip));
+    }
+
+    public boolean allowRequest(int packedIp) {
+        return enter(resolvePrefix(packedIp));
+    }
+
+    private static boolean enter(String prefix) {
+        if (prefix == null) {
+            return false;
+        }
+
+        Entry entry = null;
+        try {
+            entry = SphU.entry(RESOURCE_NAME, EntryType.IN, 1, prefix);
+            return true;
+        } catch (BlockException e) {
+            return false;
+        } finally {
+            if (entry != null) {
+                entry.exit(1, prefix);
+            }
+        }
+    }
+
+    /**
+     * 同一前缀下的请求合并为一次 batchCount 申请
+     */
+    public void allowRequests(String[] ips, boolean[] out) {
+        BatchGrouper grouper = BatchGrouper.start(ips.length);
+        Prefixes current = prefixes;
+        for (String ip : ips) {
+            grouper.add(current.resolve(ip));
+        }
+        for (int g = 0; g < grouper.groupCount(); g++) {
+            String prefix = (String) grouper.key(g);
+            int granted = prefix == null ? 0
+                    : ComparisonPerformanceTest.entryBatch(RESOURCE_NAME, EntryType.IN, grouper.count(g), prefix);
+            grouper.admit(g, granted, out);
+        }
+    }
+
+    /**
+     * 修改已有前缀的阈值，ip 可以是前缀或单个IP（按 /32 处理）；新增前缀需要重新初始化
+     */
+    public void updateRule(String ip, int newQps) {
+        String prefix = normalize(ip.indexOf('/') < 0 ? ip + "/32" : ip);
+        Prefixes current = prefixes;
+        if (current.prefixToSlot.containsKey(prefix)) {
+            current.exceptionStore.upsert(prefix, newQps);
+        }
+    }
+
+    public int getRuleCount() {
+        return 1;
+    }
+
+    public int getPrefixCount() {
+        return prefixes.trie.getPrefixCount();
+    }
+
+    public void clearRules() {
+        ParamFlowRuleManager.loadRules(new ArrayList<>());
+    }
+
+    String resolvePrefix(int packedIp) {
+        return prefixes.resolve(packedIp);
+    }
+
+    // 规范化为 网络地址/长度，如 10.1.2.3/8 -> 10.0.0.0/8
+    static String normalize(String cidr) {
+        int length = parseLength(cidr);
+        int mask = length == 0 ? 0 : -1 << (32 - length);
+        return Ipv4.format(parsePrefix(cidr) & mask) + "/" + length;
+    }
+
+    private static int parsePrefix(String cidr) {
+        int slash = cidr.indexOf('/');
+        return Ipv4.parse(slash < 0 ? cidr : cidr.substring(0, slash));
+    }
+
+    private static int parseLength(String cidr) {
+        int slash = cidr.indexOf('/');
+        if (slash < 0) {
+            return 32;
+        }
+        int length = Integer.parseInt(cidr.substring(slash + 1));
+        if (length < 0 || length > 32) {
+            throw new IllegalArgumentException("非法CIDR: " + cidr);
+        }
+        return length;
+    }
+}
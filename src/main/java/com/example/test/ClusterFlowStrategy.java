@@ -0,0 +1,300 @@
+package com.example.test;
+
+import com.alibaba.csp.sentinel.cluster.ClusterStateManager;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.client.ClientConstants;
+import com.alibaba.csp.sentinel.cluster.client.ClusterTokenClient;
+import com.alibaba.csp.sentinel.cluster.client.TokenClientProvider;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientAssignConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.server.ClusterTokenServer;
+import com.alibaba.csp.sentinel.cluster.server.SentinelDefaultTokenServer;
+import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
+import com.alibaba.csp.sentinel.cluster.server.config.ServerFlowConfig;
+import com.alibaba.csp.sentinel.cluster.server.config.ServerTransportConfig;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 集群流控策略：每个IP一条集群模式的 FlowRule，阈值是所有网关实例合计的全局QPS
+ *
+ * 资源和规则的组织与 IndependentRuleStrategy 相同，区别在于规则带 ClusterFlowConfig，
+ * FlowRuleChecker 每次检查经 Sentinel 的 DefaultClusterTokenClient 向令牌服务端
+ * （SentinelDefaultTokenServer）申请令牌，由服务端统一计数。
+ * 令牌请求失败（服务端不可达、超时）时回退到本地检查，本地阈值取全局阈值按实例数均分的份额，
+ * 所有实例同时回退时合计放行量仍接近全局阈值。
+ *
+ * 进程内没有配置令牌服务端地址时（{@link #configureClient}），首次加载规则会在本进程启动一个
+ * 令牌服务端并连接本机地址，单JVM下即可运行。服务端规则由服务端所在进程加载
+ * （{@link #loadServerRules}），使用外部服务端时 updateRule 只修改本地回退阈值。
+ */
+public class ClusterFlowStrategy extends ComparisonPerformanceTest.IndependentRuleStrategy {
+
+    public static final int DEFAULT_TIMEOUT_MILLIS = 20;
+    public static final String NAMESPACE = "rate-limit-cluster";
+    private static final long FLOW_ID_BASE = 1_000_000L;
+    // 服务端每个命名空间的令牌请求上限，默认值30000会先于规则阈值生效
+    private static final double SERVER_MAX_ALLOWED_QPS = 10_000_000;
+    private static final long READY_TIMEOUT_MILLIS = 10_000;
+
+    private static ClusterTokenServer embeddedServer;
+    private static int embeddedPort;
+    private static boolean clientConfigured;
+    // 由 ensureTokenServer 自动启动的服务端，clearRules 时一并关闭
+    private static boolean autoStarted;
+
+    private final int instanceCount;
+    private final Map<String, Long> resourceToFlowId = new ConcurrentHashMap<>();
+
+    public ClusterFlowStrategy() {
+        this(1);
+    }
+
+    /**
+     * @param instanceCount 共享同一全局阈值的网关实例数，决定回退时的本地阈值
+     */
+    public ClusterFlowStrategy(int instanceCount) {
+        if (instanceCount <= 0) {
+            throw new IllegalArgumentException("实例数必须大于0: " + instanceCount);
+        }
+        this.instanceCount = instanceCount;
+    }
+
+    /**
+     * 在本进程启动令牌服务端，已启动时直接返回端口
+     */
+    public static synchronized int startServer() {
+        if (embeddedServer != null) {
+            return embeddedPort;
+        }
+        try {
+            embeddedPort = freeLoopbackPort();
+            ClusterServerConfigManager.loadGlobalTransportConfig(new ServerTransportConfig(embeddedPort, 600));
+            ServerFlowConfig flowConfig = new ServerFlowConfig();
+            flowConfig.setMaxAllowedQps(SERVER_MAX_ALLOWED_QPS);
+            ClusterServerConfigManager.loadGlobalFlowConfig(flowConfig);
+            ClusterServerConfigManager.loadServerNamespaceSet(Collections.singleton(NAMESPACE));
+
+            ClusterTokenServer server = new SentinelDefaultTokenServer();
+            server.start();
+            embeddedServer = server;
+        } catch (Exception e) {
+            throw new IllegalStateException("启动令牌服务端失败", e);
+        }
+        return embeddedPort;
+    }
+
+    public static synchronized void stopServer() {
+        if (embeddedServer == null) {
+            return;
+        }
+        try {
+            embeddedServer.stop();
+        } catch (Exception e) {
+            throw new IllegalStateException("停止令牌服务端失败", e);
+        } finally {
+            embeddedServer = null;
+        }
+    }
+
+    /**
+     * 配置令牌客户端：服务端地址和单次请求超时；客户端已启动时切换到新地址
+     */
+    public static synchronized void configureClient(String host, int port, int requestTimeoutMillis) {
+        ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig().setRequestTimeout(requestTimeoutMillis));
+        ClusterClientConfigManager.applyNewAssignConfig(new ClusterClientAssignConfig(host, port));
+        clientConfigured = true;
+    }
+
+    /**
+     * 切换为集群客户端并等待与服务端的连接就绪
+     */
+    public static void startClient() {
+        if (!ClusterStateManager.isClient()) {
+            ClusterStateManager.setToClient();
+        }
+        ClusterTokenClient client = TokenClientProvider.getClient();
+        if (client == null) {
+            throw new IllegalStateException("classpath中没有令牌客户端实现");
+        }
+        // 只看连接状态，不发令牌请求：服务端响应慢于请求超时时，请求总是 FAIL，但连接已经可用
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(READY_TIMEOUT_MILLIS);
+        while (client.getState() != ClientConstants.CLIENT_STATUS_STARTED) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("令牌客户端连接服务端超时");
+            }
+            sleepQuietly(10);
+        }
+    }
+
+    public static void stopClient() {
+        ClusterStateManager.applyState(ClusterStateManager.CLUSTER_NOT_STARTED);
+    }
+
+    /**
+     * 单次令牌请求，不经过Sentinel的slot chain
+     */
+    public static TokenResult requestToken(long flowId) {
+        return TokenClientProvider.getClient().requestToken(flowId, 1, false);
+    }
+
+    /**
+     * 本进程未配置外部服务端时启动本地令牌服务端并指向它
+     */
+    static synchronized boolean ensureTokenServer() {
+        if (clientConfigured) {
+            return embeddedServer != null;
+        }
+        configureClient("127.0.0.1", startServer(), DEFAULT_TIMEOUT_MILLIS);
+        autoStarted = true;
+        return true;
+    }
+
+    private static synchronized void releaseAutoStartedServer() {
+        if (!autoStarted) {
+            return;
+        }
+        stopClient();
+        stopServer();
+        clientConfigured = false;
+        autoStarted = false;
+    }
+
+    /**
+     * 第 index 条规则的 flowId；各实例按相同的IP顺序加载规则，同一IP在所有实例上对应同一个 flowId
+     */
+    static long flowIdOf(int index) {
+        return FLOW_ID_BASE + index;
+    }
+
+    /**
+     * 在服务端所在进程加载全局阈值，替换命名空间中的全部规则
+     */
+    public static void loadServerRules(long[] flowIds, double[] thresholds) {
+        List<FlowRule> rules = new ArrayList<>(flowIds.length);
+        for (int i = 0; i < flowIds.length; i++) {
+            rules.add(serverRule(flowIds[i], thresholds[i]));
+        }
+        ClusterFlowRuleManager.loadRules(NAMESPACE, rules);
+    }
+
+    /**
+     * 前 ruleCount 个 flowId 使用同一全局阈值，供独立的服务端进程使用
+     */
+    public static void loadServerRules(int ruleCount, double threshold) {
+        long[] flowIds = new long[ruleCount];
+        double[] thresholds = new double[ruleCount];
+        for (int i = 0; i < ruleCount; i++) {
+            flowIds[i] = flowIdOf(i);
+            thresholds[i] = threshold;
+        }
+        loadServerRules(flowIds, thresholds);
+    }
+
+    @Override
+    protected void loadRules(List<FlowRule> rules) {
+        boolean localServer = ensureTokenServer();
+        long[] flowIds = new long[rules.size()];
+        double[] thresholds = new double[rules.size()];
+        resourceToFlowId.clear();
+
+        for (int i = 0; i < rules.size(); i++) {
+            FlowRule rule = rules.get(i);
+            flowIds[i] = flowIdOf(i);
+            thresholds[i] = rule.getCount();
+            resourceToFlowId.put(rule.getResource(), flowIds[i]);
+
+            rule.setCount(localShare(rule.getCount()));
+            rule.setClusterMode(true);
+            rule.setClusterConfig(new ClusterFlowConfig()
+                    .setFlowId(flowIds[i])
+                    .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL)
+                    .setFallbackToLocalWhenFail(true));
+        }
+
+        if (localServer) {
+            loadServerRules(flowIds, thresholds);
+        }
+        FlowRuleManager.loadRules(rules);
+        startClient();
+    }
+
+    /**
+     * 本地规则改回退阈值；服务端在本进程时同时修改全局阈值
+     */
+    @Override
+    public void updateRule(String ip, int newQps) {
+        String resource = resolveResource(ip);
+        Long flowId = resource == null ? null : resourceToFlowId.get(resource);
+        if (flowId == null) {
+            return;
+        }
+        if (ensureTokenServer()) {
+            List<FlowRule> serverRules = new ArrayList<>(ClusterFlowRuleManager.getFlowRules(NAMESPACE));
+            serverRules.removeIf(rule -> flowId.equals(rule.getClusterConfig().getFlowId()));
+            serverRules.add(serverRule(flowId, newQps));
+            ClusterFlowRuleManager.loadRules(NAMESPACE, serverRules);
+        }
+        reloadWithCount(resource, localShare(newQps));
+    }
+
+    @Override
+    public void clearRules() {
+        super.clearRules();
+        resourceToFlowId.clear();
+        releaseAutoStartedServer();
+    }
+
+    public int getInstanceCount() {
+        return instanceCount;
+    }
+
+    private double localShare(double globalQps) {
+        return Math.max(1, Math.ceil(globalQps / instanceCount));
+    }
+
+    private static FlowRule serverRule(long flowId, double threshold) {
+        FlowRule rule = new FlowRule("cluster_flow_" + flowId);
+        rule.setGrade(RuleConstant.FLOW_GRADE_QPS);
+        rule.setCount(threshold);
+        rule.setClusterMode(true);
+        rule.setClusterConfig(new ClusterFlowConfig()
+                .setFlowId(flowId)
+                .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL));
+        return rule;
+    }
+
+    // SentinelDefaultTokenServer 不支持监听0端口后取回实际端口，先找一个空闲端口
+    private static int freeLoopbackPort() {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.test;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 集群流控的基准测试：令牌请求往返延迟、放行吞吐上限和服务端变慢时的本地回退
+ *
+ * 令牌服务端和客户端都是Sentinel集群模块的默认实现（SentinelDefaultTokenServer、DefaultClusterTokenClient），
+ * 客户端与服务端之间是一条复用的长连接，请求超时不会断开重连。
+ * serverPort=0 时在本fork内启动令牌服务端；TestRunner cluster 模式在父进程启动服务端并加载规则，
+ * 再同时启动多个JVM运行本测试并传入端口，每个JVM相当于一个网关实例。
+ * serverDelayMillis>0 时请求经 TokenDelayProxy 转发，延迟超过 requestTimeoutMillis 后每次令牌请求都超时。
+ * 辅助计数器 admitted 为放行数，failed 为 roundTrip 中失败（超时）的令牌请求数，
+ * 这些请求在 admit 中会回退到本地检查。
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Xms2g", "-XX:+UseG1GC"})
+@Threads(8)
+public class ClusterTokenBenchmark {
+
+    @Param({"0"})
+    private int serverPort;
+
+    @Param({"0", "5", "50"})
+    private int serverDelayMillis;
+
+    @Param({"20"})
+    private int requestTimeoutMillis;
+
+    // 共享全局阈值的实例数
+    @Param({"4"})
+    private int instanceCount;
+
+    @Param({"16"})
+    private int ipCount;
+
+    // 每个IP的全局QPS
+    @Param({"1000"})
+    private int defaultQps;
+
+    private List<String> ipAddresses;
+    private ClusterFlowStrategy strategy;
+    private boolean localServer;
+    private TokenDelayProxy proxy;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RequestCounters {
+        public long admitted;
+        public long failed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            admitted = 0;
+            failed = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        ipAddresses = new ArrayList<>(ipCount);
+        for (int i = 0; i < ipCount; i++) {
+            ipAddresses.add(String.format("198.18.0.%d", i % 256));
+        }
+
+        int targetPort = serverPort;
+        localServer = targetPort == 0;
+        if (localServer) {
+            targetPort = ClusterFlowStrategy.startServer();
+        }
+        if (serverDelayMillis > 0) {
+            proxy = new TokenDelayProxy(targetPort, serverDelayMillis);
+            targetPort = proxy.getPort();
+        }
+        ClusterFlowStrategy.configureClient("127.0.0.1", targetPort, requestTimeoutMillis);
+
+        strategy = new ClusterFlowStrategy(instanceCount);
+        strategy.initRules(ipAddresses, defaultQps);
+        System.out.printf("%n集群流控初始化完成: 服务端端口=%d, 延迟=%dms, 超时=%dms, 实例数=%d%n",
+                targetPort, serverDelayMillis, requestTimeoutMillis, instanceCount);
+    }
+
+    /**
+     * 单次令牌请求的往返延迟，不经过Sentinel的slot chain
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public TokenResult roundTrip(Cursor cursor, RequestCounters counters) {
+        int index = cursor.next;
+        cursor.next = index + 1 == ipCount ? 0 : index + 1;
+        TokenResult result = ClusterFlowStrategy.requestToken(ClusterFlowStrategy.flowIdOf(index));
+        if (result.getStatus() == TokenResultStatus.FAIL) {
+            counters.failed++;
+        }
+        return result;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public boolean admit(Cursor cursor, RequestCounters counters) {
+        int index = cursor.next;
+        cursor.next = index + 1 == ipCount ? 0 : index + 1;
+        boolean allowed = strategy.allowRequest(ipAddresses.get(index));
+        if (allowed) {
+            counters.admitted++;
+        }
+        return allowed;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        strategy.clearRules();
+        ClusterFlowStrategy.stopClient();
+        if (proxy != null) {
+            proxy.close();
+        }
+        if (localServer) {
+            ClusterFlowStrategy.stopServer();
+        }
+    }
+
+    /**
+     * 多实例运行：本进程启动令牌服务端并加载全局阈值，同时启动 instances 个子JVM各跑一遍 admit，
+     * 汇总各实例的放行速率与全局阈值比较。子JVM输出写入 cluster_c<序号>.log
+     */
+    public static void runMultiInstance(int instances, int ipCount, int defaultQps)
+            throws IOException, InterruptedException {
+        int port = ClusterFlowStrategy.startServer();
+        ClusterFlowStrategy.loadServerRules(ipCount, defaultQps);
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+        List<Process> processes = new ArrayList<>(instances);
+        for (int i = 0; i < instances; i++) {
+            // 多个JMH同时运行需要跳过 /tmp/jmh.lock
+            processes.add(new ProcessBuilder(java, "-Djmh.ignoreLock=true", "-cp", System.getProperty("java.class.path"),
+                    "org.openjdk.jmh.Main", ClusterTokenBenchmark.class.getSimpleName() + ".admit",
+                    "-f", "1",
+                    "-p", "serverPort=" + port,
+                    "-p", "serverDelayMillis=0",
+                    "-p", "instanceCount=" + instances,
+                    "-p", "ipCount=" + ipCount,
+                    "-p", "defaultQps=" + defaultQps,
+                    "-rf", "json", "-rff", "cluster_c" + i + "_results.json")
+                    .redirectErrorStream(true)
+                    .redirectOutput(new File("cluster_c" + i + ".log"))
+                    .start());
+        }
+
+        double totalAdmitted = 0;
+        for (int i = 0; i < instances; i++) {
+            if (processes.get(i).waitFor() != 0) {
+                throw new IllegalStateException("实例 " + i + " 运行失败，见 cluster_c" + i + ".log");
+            }
+            double admitted = readAdmitted(Paths.get("cluster_c" + i + "_results.json"));
+            totalAdmitted += admitted;
+            System.out.printf("实例 %d: 放行 %.3f 次/ms%n", i, admitted);
+        }
+        ClusterFlowStrategy.stopServer();
+
+        double limit = ipCount * (double) defaultQps / 1000;
+        System.out.printf("合计放行: %.3f 次/ms, 全局阈值: %.3f 次/ms (%.1f%%)%n",
+                totalAdmitted, limit, totalAdmitted * 100 / limit);
+    }
+
+    private static double readAdmitted(Path resultFile) throws IOException {
+        for (JsonNode result : new ObjectMapper().readTree(resultFile.toFile())) {
+            JsonNode admitted = result.path("secondaryMetrics").path("admitted");
+            if (!admitted.isMissingNode()) {
+                return admitted.path("score").asDouble();
+            }
+        }
+        return 0;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ClusterTokenBenchmark.class.getSimpleName())
+                .shouldDoGC(true)
+                .result("cluster_token_results.json")
+                .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.JSON)
+                .build();
+
+        new Runner(options).run();
+    }
+}
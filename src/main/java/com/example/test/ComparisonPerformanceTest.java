@@ -1,7 +1,13 @@
 package com.example.test;
 
 import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.CtSph;
+import com.alibaba.csp.sentinel.Env;
+import com.alibaba.csp.sentinel.SphO;
 import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
@@ -10,6 +16,7 @@ import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowItem;
 import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
 import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRuleManager;
 import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
 import org.openjdk.jmh.infra.Blackhole;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
@@ -18,9 +25,8 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 @State(Scope.Benchmark)
 @BenchmarkMode({Mode.Throughput, Mode.AverageTime})
@@ -41,30 +47,63 @@ public class ComparisonPerformanceTest {
     @Param({"10"})
     private int ipCount;
 
-    @Param({"INDEPENDENT", "HOTSPOT"})
+    @Param({"INDEPENDENT", "HOTSPOT", "CIDR", "LOCAL_BUCKET"})
     private String strategyType;
 
+    @Param({"SPIN"})
+    private String workload;  // 业务处理负载模型，见Workload
+
+    @Param({"10000000"})
+    private long businessNanos;  // 业务处理耗时，默认10ms
+
+    @Param({"UNIFORM"})
+    private String trafficDistribution;  // 请求IP的分布，见TrafficDistribution
+
     private List<String> ipAddresses;
+    private TrafficDistribution traffic;
     private RateLimitStrategy strategy;
+    private Workload businessWorkload;
+
+    // 预解析句柄的策略直接调用 CtSph.entry(ResourceWrapper, ...)，SphU 内部也是转发到这里
+    static final CtSph SPH = (CtSph) Env.sph;
 
     // 策略接口
     interface RateLimitStrategy {
         void initRules(List<String> ips, int defaultQps);
         boolean allowRequest(String ip);
+
+        /**
+         * 批量准入，out[i] 为 ips[i] 的结果；默认逐个调用 allowRequest
+         */
+        default void allowRequests(String[] ips, boolean[] out) {
+            for (int i = 0; i < ips.length; i++) {
+                out[i] = allowRequest(ips[i]);
+            }
+        }
+
         void updateRule(String ip, int newQps);
         int getRuleCount();
+        void clearRules();
     }
 
     // 独立规则策略
     public static class IndependentRuleStrategy implements RateLimitStrategy {
         private final Map<String, String> ipToResourceMap = new ConcurrentHashMap<>();
+        // 打包IPv4 -> 资源句柄（resources数组下标），供int路径使用
+        private Ipv4Table ipToHandle = new Ipv4Table(0);
+        private String[] resources = new String[0];
 
         public void initRules(List<String> ips, int defaultQps) {
             List<FlowRule> rules = new ArrayList<>();
+            ipToHandle = new Ipv4Table(ips.size());
+            resources = new String[ips.size()];
 
-            for (String ip : ips) {
+            for (int i = 0; i < ips.size(); i++) {
+                String ip = ips.get(i);
                 String resource = "independent_ip_" + ip.replace(".", "_");
                 ipToResourceMap.put(ip, resource);
+                ipToHandle.put(Ipv4.parse(ip), i);
+                resources[i] = resource;
 
                 FlowRule rule = new FlowRule();
                 rule.setResource(resource);
@@ -73,11 +112,56 @@ public class ComparisonPerformanceTest {
                 rules.add(rule);
             }
 
+            loadRules(rules);
+        }
+
+        protected void loadRules(List<FlowRule> rules) {
             FlowRuleManager.loadRules(rules);
         }
 
         public boolean allowRequest(String ip) {
-            String resource = ipToResourceMap.get(ip);
+            return enter(resolveResource(ip));
+        }
+
+        /**
+         * int路径：IP直接来自socket的4个字节，跳过字符串格式化和哈希
+         */
+        public boolean allowRequest(int packedIp) {
+            return enter(resolveResource(packedIp));
+        }
+
+        /**
+         * 同一批次中重复的IP合并为一次 batchCount 申请
+         */
+        public void allowRequests(String[] ips, boolean[] out) {
+            BatchGrouper grouper = BatchGrouper.start(ips.length);
+            for (String ip : ips) {
+                grouper.add(resolveResource(ip));
+            }
+            for (int g = 0; g < grouper.groupCount(); g++) {
+                String resource = (String) grouper.key(g);
+                int granted = resource == null ? 0 : entryBatch(resource, EntryType.OUT, grouper.count(g), null);
+                grouper.admit(g, granted, out);
+            }
+        }
+
+        String resolveResource(String ip) {
+            return ipToResourceMap.get(ip);
+        }
+
+        String resolveResource(int packedIp) {
+            int handle = ipToHandle.get(packedIp);
+            return handle == Ipv4Table.MISSING ? null : resources[handle];
+        }
+
+        /**
+         * 资源句柄，即资源在本次初始化中的下标，不存在时返回 {@link Ipv4Table#MISSING}
+         */
+        int resolveHandle(int packedIp) {
+            return ipToHandle.get(packedIp);
+        }
+
+        boolean enter(String resource) {
             if (resource == null) {
                 return false;
             }
@@ -101,20 +185,155 @@ public class ComparisonPerformanceTest {
             if (resource == null) {
                 return;
             }
+            reloadWithCount(resource, newQps);
+        }
 
-            List<FlowRule> rules = FlowRuleManager.getRules();
-            for (FlowRule rule : rules) {
+        /**
+         * 复制出全部规则、修改 resource 的阈值后全量加载
+         *
+         * FlowRuleManager.getRules() 返回的就是已加载的规则对象，原地修改后再加载时新旧列表相等，
+         * DynamicSentinelProperty 会跳过这次更新，控制器不会重建，新阈值也不会生效。
+         */
+        static void reloadWithCount(String resource, double count) {
+            List<FlowRule> current = FlowRuleManager.getRules();
+            List<FlowRule> rules = new ArrayList<>(current.size());
+            for (FlowRule rule : current) {
+                FlowRule copy = copyOf(rule);
                 if (rule.getResource().equals(resource)) {
-                    rule.setCount(newQps);
-                    break;
+                    copy.setCount(count);
                 }
+                rules.add(copy);
             }
             FlowRuleManager.loadRules(rules);
         }
 
+        static FlowRule copyOf(FlowRule rule) {
+            FlowRule copy = new FlowRule(rule.getResource());
+            copy.setLimitApp(rule.getLimitApp());
+            copy.setGrade(rule.getGrade());
+            copy.setCount(rule.getCount());
+            copy.setStrategy(rule.getStrategy());
+            copy.setRefResource(rule.getRefResource());
+            copy.setControlBehavior(rule.getControlBehavior());
+            copy.setWarmUpPeriodSec(rule.getWarmUpPeriodSec());
+            copy.setMaxQueueingTimeMs(rule.getMaxQueueingTimeMs());
+            copy.setClusterMode(rule.isClusterMode());
+            copy.setClusterConfig(rule.getClusterConfig());
+            return copy;
+        }
+
         public int getRuleCount() {
             return FlowRuleManager.getRules().size();
         }
+
+        public void clearRules() {
+            FlowRuleManager.loadRules(new ArrayList<>());
+        }
+    }
+
+    // 独立规则策略（增量更新），规则由DeltaFlowRuleManager管理，单IP变更只重建该规则的控制器
+    public static class DeltaRuleStrategy extends IndependentRuleStrategy {
+
+        @Override
+        protected void loadRules(List<FlowRule> rules) {
+            DeltaFlowRuleManager.loadRules(rules);
+        }
+
+        @Override
+        public void updateRule(String ip, int newQps) {
+            String resource = resolveResource(ip);
+            if (resource == null) {
+                return;
+            }
+
+            FlowRule rule = new FlowRule();
+            rule.setResource(resource);
+            rule.setGrade(RuleConstant.FLOW_GRADE_QPS);
+            rule.setCount(newQps);
+            DeltaFlowRuleManager.loadRule(rule);
+        }
+
+        public void removeRule(String ip) {
+            String resource = resolveResource(ip);
+            if (resource != null) {
+                DeltaFlowRuleManager.removeRule(resource);
+            }
+        }
+
+        @Override
+        public int getRuleCount() {
+            return DeltaFlowRuleManager.getRuleCount();
+        }
+
+        @Override
+        public void clearRules() {
+            DeltaFlowRuleManager.clearRules();
+        }
+    }
+
+    // 独立规则策略（SphO），以返回值判断是否放行，调用方不再捕获 BlockException
+    public static class SphOIndependentStrategy extends IndependentRuleStrategy {
+
+        @Override
+        boolean enter(String resource) {
+            if (resource == null || !SphO.entry(resource)) {
+                return false;
+            }
+            SphO.exit();
+            return true;
+        }
+    }
+
+    // 独立规则策略（预解析句柄），每个资源的 ResourceWrapper 在加载规则时创建，请求路径上不再逐次分配
+    public static class HandleIndependentStrategy extends IndependentRuleStrategy {
+        // 与资源句柄下标一致，int路径按句柄直接取
+        private ResourceWrapper[] wrappers = new ResourceWrapper[0];
+        // 字符串路径由IP直接取包装对象
+        private final Map<String, ResourceWrapper> ipToWrapper = new ConcurrentHashMap<>();
+
+        @Override
+        public void initRules(List<String> ips, int defaultQps) {
+            super.initRules(ips, defaultQps);
+            ResourceWrapper[] newWrappers = new ResourceWrapper[ips.size()];
+            ipToWrapper.clear();
+            for (String ip : ips) {
+                int handle = resolveHandle(Ipv4.parse(ip));
+                // 与 SphU.entry(String) 相同的默认类型
+                ResourceWrapper wrapper = new StringResourceWrapper(resolveResource(ip), EntryType.OUT);
+                newWrappers[handle] = wrapper;
+                ipToWrapper.put(ip, wrapper);
+            }
+            wrappers = newWrappers;
+        }
+
+        @Override
+        public boolean allowRequest(String ip) {
+            return enter(ipToWrapper.get(ip));
+        }
+
+        @Override
+        public boolean allowRequest(int packedIp) {
+            int handle = resolveHandle(packedIp);
+            return enter(handle == Ipv4Table.MISSING ? null : wrappers[handle]);
+        }
+
+        private static boolean enter(ResourceWrapper wrapper) {
+            if (wrapper == null) {
+                return false;
+            }
+
+            Entry entry = null;
+            try {
+                entry = SPH.entry(wrapper, 1);
+                return true;
+            } catch (BlockException e) {
+                return false;
+            } finally {
+                if (entry != null) {
+                    entry.exit();
+                }
+            }
+        }
     }
 
     // 热点参数策略
@@ -122,11 +341,20 @@ public class ComparisonPerformanceTest {
         private static final String RESOURCE_NAME = "comparison_hotspot_resource";
         private final Map<String, Integer> ipRateCache = new ConcurrentHashMap<>();
         private List<ParamFlowItem> hotspotParams = new ArrayList<>();
+        private final double exceptionRatio;
+
+        public HotspotParamStrategy() {
+            this(0.1);
+        }
+
+        public HotspotParamStrategy(double exceptionRatio) {
+            this.exceptionRatio = exceptionRatio;
+        }
 
         public void initRules(List<String> ips, int defaultQps) {
-            // 为10%的IP设置特殊的QPS限制
+            // 为exceptionRatio比例（默认10%）的IP设置特殊的QPS限制
             Random random = new Random(42);
-            int hotspotCount = (int) (ips.size() * 0.1);
+            int hotspotCount = (int) (ips.size() * exceptionRatio);
 
             hotspotParams = new ArrayList<>();
 
@@ -171,6 +399,17 @@ public class ComparisonPerformanceTest {
             }
         }
 
+        public void allowRequests(String[] ips, boolean[] out) {
+            BatchGrouper grouper = BatchGrouper.start(ips.length);
+            for (String ip : ips) {
+                grouper.add(ip);
+            }
+            for (int g = 0; g < grouper.groupCount(); g++) {
+                String ip = (String) grouper.key(g);
+                grouper.admit(g, entryBatch(RESOURCE_NAME, EntryType.IN, grouper.count(g), ip), out);
+            }
+        }
+
         public void updateRule(String ip, int newQps) {
             ipRateCache.put(ip, newQps);
 
@@ -211,37 +450,209 @@ public class ComparisonPerformanceTest {
             return 1; // 热点参数方案只有一个规则
         }
 
+        public void clearRules() {
+            ParamFlowRuleManager.loadRules(new ArrayList<>());
+        }
+
         public int getHotspotParamCount() {
             return hotspotParams.size();
         }
     }
 
+    // 热点参数策略（SphO）
+    public static class SphOHotspotStrategy extends HotspotParamStrategy {
+
+        public SphOHotspotStrategy() {
+            super();
+        }
+
+        public SphOHotspotStrategy(double exceptionRatio) {
+            super(exceptionRatio);
+        }
+
+        @Override
+        public boolean allowRequest(String ip) {
+            if (!SphO.entry(HotspotParamStrategy.RESOURCE_NAME, EntryType.IN, 1, ip)) {
+                return false;
+            }
+            SphO.exit(1, ip);
+            return true;
+        }
+    }
+
+    // 热点参数策略（预解析句柄）
+    public static class HandleHotspotStrategy extends HotspotParamStrategy {
+        private static final ResourceWrapper HANDLE = new StringResourceWrapper(HotspotParamStrategy.RESOURCE_NAME, EntryType.IN);
+
+        public HandleHotspotStrategy() {
+            super();
+        }
+
+        public HandleHotspotStrategy(double exceptionRatio) {
+            super(exceptionRatio);
+        }
+
+        @Override
+        public boolean allowRequest(String ip) {
+            Entry entry = null;
+            try {
+                entry = SPH.entry(HANDLE, 1, ip);
+                return true;
+            } catch (BlockException e) {
+                return false;
+            } finally {
+                if (entry != null) {
+                    entry.exit(1, ip);
+                }
+            }
+        }
+    }
+
+    // 热点参数策略（索引例外项），单IP变更直接写生效规则的例外项表，不重新加载规则
+    public static class IndexedHotspotStrategy implements RateLimitStrategy {
+        private static final String RESOURCE_NAME = "comparison_indexed_hotspot_resource";
+        private final double exceptionRatio;
+        private HotspotExceptionStore exceptionStore;
+
+        public IndexedHotspotStrategy() {
+            this(0.1);
+        }
+
+        public IndexedHotspotStrategy(double exceptionRatio) {
+            this.exceptionRatio = exceptionRatio;
+        }
+
+        public void initRules(List<String> ips, int defaultQps) {
+            // 例外项的选取方式与HotspotParamStrategy相同
+            Random random = new Random(42);
+            int hotspotCount = (int) (ips.size() * exceptionRatio);
+
+            exceptionStore = new HotspotExceptionStore(RESOURCE_NAME, defaultQps);
+            for (int i = 0; i < hotspotCount; i++) {
+                exceptionStore.upsert(ips.get(i), 50 + random.nextInt(150)); // 50-200
+            }
+
+            ParamFlowRuleManager.loadRules(Collections.singletonList(exceptionStore.buildRule()));
+            exceptionStore.attach();
+        }
+
+        public boolean allowRequest(String ip) {
+            Entry entry = null;
+            try {
+                entry = SphU.entry(RESOURCE_NAME,
+                        com.alibaba.csp.sentinel.EntryType.IN,
+                        1, ip);
+                return true;
+            } catch (BlockException e) {
+                return false;
+            } finally {
+                if (entry != null) {
+                    entry.exit(1, ip);
+                }
+            }
+        }
+
+        public void allowRequests(String[] ips, boolean[] out) {
+            BatchGrouper grouper = BatchGrouper.start(ips.length);
+            for (String ip : ips) {
+                grouper.add(ip);
+            }
+            for (int g = 0; g < grouper.groupCount(); g++) {
+                String ip = (String) grouper.key(g);
+                grouper.admit(g, entryBatch(RESOURCE_NAME, EntryType.IN, grouper.count(g), ip), out);
+            }
+        }
+
+        public void updateRule(String ip, int newQps) {
+            exceptionStore.upsert(ip, newQps);
+        }
+
+        public void removeRule(String ip) {
+            exceptionStore.delete(ip);
+        }
+
+        public int getRuleCount() {
+            return 1;
+        }
+
+        public void clearRules() {
+            ParamFlowRuleManager.loadRules(new ArrayList<>());
+        }
+
+        public int getHotspotParamCount() {
+            return exceptionStore.size();
+        }
+    }
+
+    /**
+     * 一次申请 count 个许可，被拒绝时退回逐个申请直到第一次被拒绝，
+     * 放行数量与逐个调用一致（批量申请失败会多记一次block统计）
+     *
+     * @param param 热点参数，为 null 时不带参数
+     * @return 放行的数量
+     */
+    static int entryBatch(String resource, EntryType type, int count, Object param) {
+        if (tryEntry(resource, type, count, param)) {
+            return count;
+        }
+        if (count == 1) {
+            return 0;
+        }
+
+        int granted = 0;
+        while (granted < count && tryEntry(resource, type, 1, param)) {
+            granted++;
+        }
+        return granted;
+    }
+
+    private static boolean tryEntry(String resource, EntryType type, int count, Object param) {
+        Entry entry = null;
+        try {
+            entry = param == null
+                    ? SphU.entry(resource, type, count)
+                    : SphU.entry(resource, type, count, param);
+            return true;
+        } catch (BlockException e) {
+            return false;
+        } finally {
+            if (entry != null) {
+                if (param == null) {
+                    entry.exit(count);
+                } else {
+                    entry.exit(count, param);
+                }
+            }
+        }
+    }
+
     // 指标收集器
     public static class MetricsCollector {
-        private static final AtomicLong totalRequests = new AtomicLong();
-        private static final AtomicLong passedRequests = new AtomicLong();
-        private static final AtomicLong blockedRequests = new AtomicLong();
-        private static final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        private static final LongAdder totalRequests = new LongAdder();
+        private static final LongAdder passedRequests = new LongAdder();
+        private static final LongAdder blockedRequests = new LongAdder();
+        private static final LatencyRecorder latencies = new LatencyRecorder();
 
         public static void record(long latency, boolean passed) {
-            totalRequests.incrementAndGet();
+            totalRequests.increment();
             if (passed) {
-                passedRequests.incrementAndGet();
+                passedRequests.increment();
             } else {
-                blockedRequests.incrementAndGet();
+                blockedRequests.increment();
             }
-            latencies.add(latency);
+            latencies.record(latency);
         }
 
         public static void reset() {
-            totalRequests.set(0);
-            passedRequests.set(0);
-            blockedRequests.set(0);
-            latencies.clear();
+            totalRequests.reset();
+            passedRequests.reset();
+            blockedRequests.reset();
+            latencies.reset();
         }
 
-        public static void printMetrics(String strategyType, int ipCount, int ruleCount) {
-            if (totalRequests.get() == 0) {
+        public static void printMetrics(String strategyType, int ipCount, int ruleCount,
+                                        BenchmarkParams benchmarkParams) {
+            if (totalRequests.sum() == 0) {
                 return;
             }
 
@@ -249,9 +660,9 @@ public class ComparisonPerformanceTest {
             System.out.printf("%s策略性能统计 (IP数: %d, 规则数: %d)%n", strategyType, ipCount, ruleCount);
             System.out.println("=".repeat(60));
 
-            long total = totalRequests.get();
-            long passed = passedRequests.get();
-            long blocked = blockedRequests.get();
+            long total = totalRequests.sum();
+            long passed = passedRequests.sum();
+            long blocked = blockedRequests.sum();
 
             System.out.printf("总请求数: %,d%n", total);
             System.out.printf("通过请求: %,d (%.2f%%)%n",
@@ -259,35 +670,15 @@ public class ComparisonPerformanceTest {
             System.out.printf("限流请求: %,d (%.2f%%)%n",
                     blocked, blocked * 100.0 / total);
 
-            if (!latencies.isEmpty()) {
-                List<Long> sorted = new ArrayList<>(latencies);
-                Collections.sort(sorted);
-                int size = sorted.size();
-
-                long p50 = sorted.get(size / 2);
-                long p90 = sorted.get((int) (size * 0.9));
-                long p95 = sorted.get((int) (size * 0.95));
-                long p99 = sorted.get((int) (size * 0.99));
-
-                long sum = 0;
-                for (Long latency : sorted) {
-                    sum += latency;
-                }
-                double avg = (double) sum / size;
-
-                System.out.printf("%n延迟统计:%n");
-                System.out.printf("  平均: %.0f ns (%.2f ms)%n", avg, avg / 1_000_000.0);
-                System.out.printf("  P50: %,d ns (%.2f ms)%n", p50, p50 / 1_000_000.0);
-                System.out.printf("  P90: %,d ns (%.2f ms)%n", p90, p90 / 1_000_000.0);
-                System.out.printf("  P95: %,d ns (%.2f ms)%n", p95, p95 / 1_000_000.0);
-                System.out.printf("  P99: %,d ns (%.2f ms)%n", p99, p99 / 1_000_000.0);
-            }
+            latencies.printStats("");
+            latencies.appendLadder("ComparisonPerformanceTest", strategyType, benchmarkParams);
         }
     }
 
     @Setup(Level.Trial)
     public void setup() {
         MetricsCollector.reset();
+        LatencyP99Counters.track(MetricsCollector.latencies);
 
         // 生成IP地址
         ipAddresses = new ArrayList<>(ipCount);
@@ -299,11 +690,9 @@ public class ComparisonPerformanceTest {
         }
 
         // 初始化策略
-        if ("INDEPENDENT".equals(strategyType)) {
-            strategy = new IndependentRuleStrategy();
-        } else {
-            strategy = new HotspotParamStrategy();
-        }
+        strategy = createStrategy(strategyType);
+        businessWorkload = Workload.valueOf(workload);
+        traffic = TrafficDistribution.parse(trafficDistribution, ipCount);
 
         long startTime = System.currentTimeMillis();
         strategy.initRules(ipAddresses, 100);
@@ -317,8 +706,8 @@ public class ComparisonPerformanceTest {
 
     @Benchmark
     @Threads(10)
-    public void testRateLimit(Blackhole blackhole) {
-        String ip = ipAddresses.get(ThreadLocalRandom.current().nextInt(ipCount));
+    public void testRateLimit(Blackhole blackhole, LatencyP99Counters latencyCounters) {
+        String ip = ipAddresses.get(traffic.next());
 
         long start = System.nanoTime();
         boolean allowed = strategy.allowRequest(ip);
@@ -334,14 +723,17 @@ public class ComparisonPerformanceTest {
     }
 
     @TearDown(Level.Trial)
-    public void tearDown() {
+    public void tearDown(BenchmarkParams benchmarkParams) {
         int ruleCount = strategy.getRuleCount();
-        MetricsCollector.printMetrics(strategyType, ipCount, ruleCount);
+        MetricsCollector.printMetrics(strategyType, ipCount, ruleCount, benchmarkParams);
 
         // 如果是热点参数策略，显示热点参数数量
         if (strategy instanceof HotspotParamStrategy) {
             int hotspotParamCount = ((HotspotParamStrategy) strategy).getHotspotParamCount();
             System.out.printf("热点参数数量: %d%n", hotspotParamCount);
+        } else if (strategy instanceof IndexedHotspotStrategy) {
+            int hotspotParamCount = ((IndexedHotspotStrategy) strategy).getHotspotParamCount();
+            System.out.printf("热点参数数量: %d%n", hotspotParamCount);
         }
 
         // 内存统计
@@ -352,10 +744,41 @@ public class ComparisonPerformanceTest {
         System.out.printf("内存使用: %.2fMB%n", usedMemory / 1024.0 / 1024.0);
 
         // 清理规则
-        if ("INDEPENDENT".equals(strategyType)) {
-            FlowRuleManager.loadRules(new ArrayList<>());
-        } else {
-            ParamFlowRuleManager.loadRules(new ArrayList<>());
+        strategy.clearRules();
+    }
+
+    static RateLimitStrategy createStrategy(String strategyType) {
+        // 如 NEG_CACHE:INDEPENDENT，在指定策略前加负缓存
+        if (strategyType.startsWith(NegativeCacheStrategy.PREFIX)) {
+            return new NegativeCacheStrategy(createStrategy(strategyType.substring(NegativeCacheStrategy.PREFIX.length())));
+        }
+        switch (strategyType) {
+            case "INDEPENDENT":
+                return new IndependentRuleStrategy();
+            case "INDEPENDENT_SPHO":
+                return new SphOIndependentStrategy();
+            case "INDEPENDENT_HANDLE":
+                return new HandleIndependentStrategy();
+            case "INDEPENDENT_DELTA":
+                return new DeltaRuleStrategy();
+            case "HOTSPOT":
+                return new HotspotParamStrategy();
+            case "HOTSPOT_SPHO":
+                return new SphOHotspotStrategy();
+            case "HOTSPOT_HANDLE":
+                return new HandleHotspotStrategy();
+            case "HOTSPOT_INDEXED":
+                return new IndexedHotspotStrategy();
+            case "SHARDED_HOTSPOT":
+                return new ShardedHotspotStrategy();
+            case "CIDR":
+                return new CidrTrieStrategy();
+            case "LOCAL_BUCKET":
+                return new LocalTokenBucketStrategy();
+            case "CLUSTER":
+                return new ClusterFlowStrategy();
+            default:
+                throw new IllegalArgumentException("未知的策略类型: " + strategyType);
         }
     }
 
@@ -374,12 +797,8 @@ public class ComparisonPerformanceTest {
     }
 
     private Object processBusiness() {
-        // 模拟业务处理，耗时1-5ms，调整为固定10ms
-        long processTime = 10_000_000 ;// + ThreadLocalRandom.current().nextLong(4_000_000);
-        long start = System.nanoTime();
-        while (System.nanoTime() - start < processTime) {
-            // 忙等待
-        }
+        // 模拟业务处理，方式由workload参数决定，默认忙等待10ms
+        businessWorkload.run(businessNanos);
         return "ProcessResult";
     }
 
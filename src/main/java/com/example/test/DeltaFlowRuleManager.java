@@ -0,0 +1,78 @@
+package com.example.test;
+
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 增量流控规则管理器
+ *
+ * FlowRuleManager.loadRules 每次都会为全部规则重新生成 TrafficShapingController，
+ * 单条规则变更的代价是 O(N)。这里按资源名保存规则，新增、修改、删除时只为该资源的规则
+ * 生成控制器，其它资源的规则对象和控制器状态保持不变。
+ * 规则由 {@link DeltaFlowSlot} 在 FlowSlot 之后检查。
+ */
+public final class DeltaFlowRuleManager {
+
+    private static final Map<String, List<FlowRule>> RULES = new ConcurrentHashMap<>();
+
+    private DeltaFlowRuleManager() {
+    }
+
+    /**
+     * 批量加载规则，替换当前全部规则
+     */
+    public static void loadRules(List<FlowRule> rules) {
+        Map<String, List<FlowRule>> ruleMap = FlowRuleUtil.buildFlowRuleMap(rules);
+        RULES.keySet().retainAll(ruleMap.keySet());
+        RULES.putAll(ruleMap);
+    }
+
+    /**
+     * 新增或修改一个资源的规则，只重建这一条规则的控制器
+     *
+     * @return 规则无效时返回 false，原有规则保持不变
+     */
+    public static boolean loadRule(FlowRule rule) {
+        Map<String, List<FlowRule>> ruleMap = FlowRuleUtil.buildFlowRuleMap(Collections.singletonList(rule));
+        List<FlowRule> built = ruleMap.get(rule.getResource());
+        if (built == null) {
+            return false;
+        }
+        RULES.put(rule.getResource(), built);
+        return true;
+    }
+
+    public static boolean removeRule(String resource) {
+        return RULES.remove(resource) != null;
+    }
+
+    public static List<FlowRule> getRules(String resource) {
+        return RULES.get(resource);
+    }
+
+    public static List<FlowRule> getRules() {
+        List<FlowRule> rules = new ArrayList<>();
+        for (List<FlowRule> resourceRules : RULES.values()) {
+            rules.addAll(resourceRules);
+        }
+        return rules;
+    }
+
+    public static boolean isEmpty() {
+        return RULES.isEmpty();
+    }
+
+    public static int getRuleCount() {
+        return RULES.size();
+    }
+
+    public static void clearRules() {
+        RULES.clear();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.test;
+
+import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleChecker;
+import com.alibaba.csp.sentinel.spi.Spi;
+import com.alibaba.csp.sentinel.util.function.Function;
+
+import java.util.Collection;
+
+/**
+ * 检查 {@link DeltaFlowRuleManager} 中规则的slot，通过SPI注册，排在 FlowSlot 之后
+ *
+ * 检查逻辑复用 FlowRuleChecker，限流语义与 FlowRuleManager 加载的规则一致。
+ * SPI注册对JVM中所有资源生效，DeltaFlowRuleManager 没有规则时直接跳过，
+ * 其它策略每次 entry 只多一次slot调用和一次判空。
+ */
+@Spi(order = Constants.ORDER_FLOW_SLOT + 1)
+public class DeltaFlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
+
+    private final FlowRuleChecker checker = new FlowRuleChecker();
+    private final Function<String, Collection<FlowRule>> ruleProvider = DeltaFlowRuleManager::getRules;
+
+    @Override
+    public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
+                      boolean prioritized, Object... args) throws Throwable {
+        if (!DeltaFlowRuleManager.isEmpty()) {
+            checker.checkFlow(ruleProvider, resourceWrapper, context, node, count, prioritized);
+        }
+        fireEntry(context, resourceWrapper, node, count, prioritized, args);
+    }
+
+    @Override
+    public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
+        fireExit(context, resourceWrapper, count, args);
+    }
+}
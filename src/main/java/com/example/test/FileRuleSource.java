@@ -0,0 +1,314 @@
+package com.example.test;
+
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 本地文件规则源：用 WatchService 监听规则文件，变化后流式解析，与当前规则比较，只推送有变化的IP
+ *
+ * 文件内容是 IP 到 QPS 阈值的映射，支持两种格式，按第一个非空白字符区分：
+ * JSON 数组 [{"ip":"10.0.0.1","qps":100}, ...]，或紧凑格式每行 "IP QPS"（# 开头为注释）。
+ * 解析用 Jackson 的 JsonParser 逐个读取，不建树；整份文件解析成功后才开始推送，
+ * 解析失败（如写到一半的JSON、文件被删除）时保持当前规则，等下一次文件事件。
+ * 紧凑格式无法识别写到一半的文件，写入方应先写临时文件再原子移动到目标文件名。
+ *
+ * 推送目标见 {@link RuleSink}：普通流控规则走 DeltaFlowRuleManager，热点例外项走 HotspotExceptionStore，
+ * 两者单IP变更都不需要重新加载全部规则。
+ */
+public class FileRuleSource implements Closeable {
+
+    public static final long DEFAULT_SETTLE_MILLIS = 10;
+
+    /**
+     * 规则变更的推送目标
+     */
+    public interface RuleSink {
+        void upsert(String ip, int qps);
+        void remove(String ip);
+    }
+
+    /**
+     * 每个IP一条 FlowRule，由 DeltaFlowRuleManager 增量加载
+     */
+    public static RuleSink flowRules(Function<String, String> resourceOf) {
+        return new RuleSink() {
+            public void upsert(String ip, int qps) {
+                FlowRule rule = new FlowRule(resourceOf.apply(ip));
+                rule.setGrade(RuleConstant.FLOW_GRADE_QPS);
+                rule.setCount(qps);
+                DeltaFlowRuleManager.loadRule(rule);
+            }
+
+            public void remove(String ip) {
+                DeltaFlowRuleManager.removeRule(resourceOf.apply(ip));
+            }
+        };
+    }
+
+    /**
+     * 热点参数规则的例外项，写入已 attach 的 HotspotExceptionStore
+     */
+    public static RuleSink hotspotExceptions(HotspotExceptionStore store) {
+        return new RuleSink() {
+            public void upsert(String ip, int qps) {
+                store.upsert(ip, qps);
+            }
+
+            public void remove(String ip) {
+                store.delete(ip);
+            }
+        };
+    }
+
+    /**
+     * 一次重新加载的结果
+     */
+    public static final class Reload {
+        public final int added;
+        public final int changed;
+        public final int removed;
+        public final long parseNanos;
+        public final long applyNanos;
+
+        Reload(int added, int changed, int removed, long parseNanos, long applyNanos) {
+            this.added = added;
+            this.changed = changed;
+            this.removed = removed;
+            this.parseNanos = parseNanos;
+            this.applyNanos = applyNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("新增=%d, 修改=%d, 删除=%d, 解析=%.2fms, 推送=%.2fms",
+                    added, changed, removed, parseNanos / 1e6, applyNanos / 1e6);
+        }
+    }
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final Path file;
+    private final RuleSink sink;
+    private final long settleMillis;
+    private Map<String, Integer> current = new HashMap<>();
+    private volatile long reloadCount;
+    private volatile Reload lastReload;
+    private WatchService watchService;
+
+    public FileRuleSource(Path file, RuleSink sink) {
+        this(file, sink, DEFAULT_SETTLE_MILLIS);
+    }
+
+    /**
+     * @param settleMillis 收到文件事件后等待这么久没有新事件再读取，合并原地写入产生的多次修改事件
+     */
+    public FileRuleSource(Path file, RuleSink sink, long settleMillis) {
+        this.file = file.toAbsolutePath();
+        this.sink = sink;
+        this.settleMillis = settleMillis;
+    }
+
+    /**
+     * 文件存在时先加载一次，然后在后台线程监听文件所在目录
+     */
+    public synchronized void start() throws IOException {
+        if (watchService != null) {
+            return;
+        }
+        if (Files.exists(file)) {
+            reload();
+        }
+        watchService = file.getFileSystem().newWatchService();
+        file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        WatchService service = watchService;
+        Thread watcher = new Thread(() -> watchLoop(service), "rule-file-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watchService = null;
+        }
+    }
+
+    /**
+     * 读取文件并推送与当前规则的差异
+     */
+    public synchronized Reload reload() throws IOException {
+        long start = System.nanoTime();
+        Map<String, Integer> next = parse(file, current.size());
+        long parsed = System.nanoTime();
+
+        int added = 0;
+        int changed = 0;
+        for (Map.Entry<String, Integer> entry : next.entrySet()) {
+            Integer old = current.remove(entry.getKey());
+            if (old == null) {
+                sink.upsert(entry.getKey(), entry.getValue());
+                added++;
+            } else if (!old.equals(entry.getValue())) {
+                sink.upsert(entry.getKey(), entry.getValue());
+                changed++;
+            }
+        }
+        // 剩下的是文件中已不存在的IP
+        int removed = current.size();
+        for (String ip : current.keySet()) {
+            sink.remove(ip);
+        }
+        current = next;
+
+        Reload reload = new Reload(added, changed, removed, parsed - start, System.nanoTime() - parsed);
+        lastReload = reload;
+        reloadCount++;
+        return reload;
+    }
+
+    public long getReloadCount() {
+        return reloadCount;
+    }
+
+    public Reload getLastReload() {
+        return lastReload;
+    }
+
+    public synchronized int getRuleCount() {
+        return current.size();
+    }
+
+    private void watchLoop(WatchService service) {
+        try {
+            while (true) {
+                boolean relevant = drain(service.take());
+                if (settleMillis > 0) {
+                    WatchKey key;
+                    while ((key = service.poll(settleMillis, TimeUnit.MILLISECONDS)) != null) {
+                        relevant |= drain(key);
+                    }
+                }
+                if (relevant) {
+                    try {
+                        reload();
+                    } catch (IOException | RuntimeException e) {
+                        System.err.println("规则文件加载失败，保持当前规则: " + file + " (" + e + ")");
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // 已关闭
+        }
+    }
+
+    /**
+     * 取出目录事件，返回其中是否有规则文件本身的事件
+     */
+    private boolean drain(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || file.getFileName().equals(event.context())) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    static Map<String, Integer> parse(Path file, int expectedSize) throws IOException {
+        Map<String, Integer> rules = new HashMap<>(Math.max(16, expectedSize * 4 / 3 + 1));
+        try (PushbackInputStream in = new PushbackInputStream(Files.newInputStream(file))) {
+            int first = in.read();
+            while (first != -1 && Character.isWhitespace(first)) {
+                first = in.read();
+            }
+            if (first == -1) {
+                return rules;
+            }
+            in.unread(first);
+            if (first == '[') {
+                parseJson(in, rules);
+            } else {
+                parseCompact(in, rules);
+            }
+        }
+        return rules;
+    }
+
+    private static void parseJson(InputStream in, Map<String, Integer> rules) throws IOException {
+        try (JsonParser parser = JSON.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("规则文件应为JSON数组");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                String ip = null;
+                int qps = -1;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    if ("ip".equals(field)) {
+                        ip = parser.getText();
+                    } else if ("qps".equals(field)) {
+                        qps = parser.getIntValue();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                if (ip == null || qps < 0) {
+                    throw new IOException("规则缺少 ip 或 qps，行 " + parser.getCurrentLocation().getLineNr());
+                }
+                rules.put(ip, qps);
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new IOException("规则文件不完整");
+            }
+        }
+    }
+
+    private static void parseCompact(InputStream in, Map<String, Integer> rules) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            int space = line.indexOf(' ');
+            if (space < 0) {
+                throw new IOException("规则格式应为 \"IP QPS\"，行 " + lineNumber);
+            }
+            try {
+                rules.put(line.substring(0, space), Integer.parseInt(line.substring(space + 1).trim()));
+            } catch (NumberFormatException e) {
+                throw new IOException("QPS不是整数，行 " + lineNumber);
+            }
+        }
+    }
+}
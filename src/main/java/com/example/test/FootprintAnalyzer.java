@@ -0,0 +1,214 @@
+package com.example.test;
+
+import javax.management.ObjectName;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 各策略每个IP的常驻内存分析
+ *
+ * 用 DiagnosticCommand 的 GC.class_histogram（先做一次Full GC，只统计存活对象）在加载规则前后各取一次
+ * 按类的堆直方图，差值即规则表、ClusterNode、热点参数统计缓存等因这些IP而常驻的对象。
+ * 加载规则后每个IP先请求一次，让Sentinel按需创建的节点和统计结构都出现在结果里。
+ *
+ * Sentinel的资源、节点表都是进程级静态的，且最多只为6000个资源创建slot chain，
+ * 所以每个 (策略, IP数) 在独立的子JVM中测量，结果互不影响。IP数超过6000时 INDEPENDENT 多出的资源
+ * 没有节点，每IP字节数会偏低。
+ * 参数: [策略,逗号分隔] [IP数,逗号分隔]
+ */
+public class FootprintAnalyzer {
+
+    private static final String MEASURE_FLAG = "--measure";
+    private static final int TOP_CLASSES = 8;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && MEASURE_FLAG.equals(args[0])) {
+            measure(args[1], Integer.parseInt(args[2]));
+            return;
+        }
+
+        String[] strategies = (args.length > 0 ? args[0]
+                : "INDEPENDENT,INDEPENDENT_DELTA,HOTSPOT,HOTSPOT_INDEXED,SHARDED_HOTSPOT,CIDR,LOCAL_BUCKET").split(",");
+        String[] ipCounts = (args.length > 1 ? args[1] : "100,1000,5000,20000").split(",");
+        run(strategies, ipCounts, "footprint_results.csv");
+    }
+
+    /**
+     * 逐个启动子JVM测量，汇总为表格和CSV
+     */
+    public static void run(String[] strategies, String[] ipCounts, String csvFile)
+            throws IOException, InterruptedException {
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(Paths.get(csvFile), StandardCharsets.UTF_8))) {
+            csv.println("strategy,ip_count,retained_bytes,retained_instances,bytes_per_ip");
+
+            for (String strategy : strategies) {
+                for (String ipCount : ipCounts) {
+                    Footprint footprint = measureInChildJvm(strategy, Integer.parseInt(ipCount));
+                    footprint.print();
+                    csv.printf(Locale.ROOT, "%s,%d,%d,%d,%.1f%n", strategy, footprint.ipCount,
+                            footprint.bytes, footprint.instances, footprint.getBytesPerIp());
+                    csv.flush();
+                }
+            }
+        }
+        System.out.println("\n结果已保存到: " + csvFile);
+    }
+
+    private static Footprint measureInChildJvm(String strategy, int ipCount) throws IOException, InterruptedException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-Xmx2g", "-XX:+UseG1GC",
+                "-cp", System.getProperty("java.class.path"),
+                FootprintAnalyzer.class.getName(), MEASURE_FLAG, strategy, String.valueOf(ipCount))
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+
+        Footprint footprint = new Footprint(strategy, ipCount);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t");
+                if ("TOTAL".equals(fields[0])) {
+                    footprint.instances = Long.parseLong(fields[1]);
+                    footprint.bytes = Long.parseLong(fields[2]);
+                } else if ("CLASS".equals(fields[0])) {
+                    footprint.topClasses.add(new ClassDelta(fields[1], Long.parseLong(fields[2]), Long.parseLong(fields[3])));
+                }
+            }
+        }
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("子JVM测量失败: " + strategy + " ipCount=" + ipCount);
+        }
+        return footprint;
+    }
+
+    /**
+     * 子JVM中执行：加载前后各取一次直方图，输出差值
+     */
+    private static void measure(String strategyType, int ipCount) throws Exception {
+        List<String> ips = new ArrayList<>(ipCount);
+        for (int i = 0; i < ipCount; i++) {
+            ips.add(String.format("10.%d.%d.%d", (i / 65536) % 256, (i / 256) % 256, i % 256));
+        }
+        ComparisonPerformanceTest.RateLimitStrategy strategy = ComparisonPerformanceTest.createStrategy(strategyType);
+
+        // 先用另一组IP跑一遍，把类加载、Sentinel全局初始化等一次性开销排除在基线之前
+        strategy.initRules(Collections.singletonList("172.16.0.1"), 100);
+        strategy.allowRequest("172.16.0.1");
+        strategy.clearRules();
+
+        // 取"加载后"直方图时"加载前"的解析结果还存活；取基线时也让一份同样的结果存活，两者抵消
+        Map<String, ClassDelta> placeholder = classHistogram();
+        Map<String, ClassDelta> before = classHistogram();
+        Reference.reachabilityFence(placeholder);
+        placeholder = null;
+
+        strategy.initRules(ips, 100);
+        for (String ip : ips) {
+            strategy.allowRequest(ip);
+        }
+        Map<String, ClassDelta> after = classHistogram();
+
+        List<ClassDelta> deltas = new ArrayList<>();
+        long totalBytes = 0;
+        long totalInstances = 0;
+        for (ClassDelta entry : after.values()) {
+            ClassDelta base = before.get(entry.className);
+            long bytes = entry.bytes - (base == null ? 0 : base.bytes);
+            long instances = entry.instances - (base == null ? 0 : base.instances);
+            totalBytes += bytes;
+            totalInstances += instances;
+            if (bytes > 0) {
+                deltas.add(new ClassDelta(entry.className, instances, bytes));
+            }
+        }
+        for (ClassDelta entry : before.values()) {
+            if (!after.containsKey(entry.className)) {
+                totalBytes -= entry.bytes;
+                totalInstances -= entry.instances;
+            }
+        }
+        deltas.sort((a, b) -> Long.compare(b.bytes, a.bytes));
+
+        System.out.println("TOTAL\t" + totalInstances + "\t" + totalBytes);
+        for (int i = 0; i < Math.min(TOP_CLASSES, deltas.size()); i++) {
+            ClassDelta delta = deltas.get(i);
+            System.out.println("CLASS\t" + delta.className + "\t" + delta.instances + "\t" + delta.bytes);
+        }
+        // 保持策略可达，直到第二次直方图之后
+        Reference.reachabilityFence(strategy);
+    }
+
+    /**
+     * 调用 GC.class_histogram，解析为 类名 -> (实例数, 字节数)
+     */
+    static Map<String, ClassDelta> classHistogram() throws Exception {
+        ObjectName diagnosticCommand = new ObjectName("com.sun.management:type=DiagnosticCommand");
+        String histogram = (String) ManagementFactory.getPlatformMBeanServer().invoke(diagnosticCommand,
+                "gcClassHistogram", new Object[]{new String[0]}, new String[]{String[].class.getName()});
+
+        Map<String, ClassDelta> result = new HashMap<>();
+        for (String line : histogram.split("\n")) {
+            String[] fields = line.trim().split("\\s+");
+            // 格式:  序号:  实例数  字节数  类名 [(模块)]
+            if (fields.length < 4 || !fields[0].endsWith(":")) {
+                continue;
+            }
+            String className = fields[3];
+            result.merge(className, new ClassDelta(className, Long.parseLong(fields[1]), Long.parseLong(fields[2])),
+                    (a, b) -> new ClassDelta(className, a.instances + b.instances, a.bytes + b.bytes));
+        }
+        return result;
+    }
+
+    static final class ClassDelta {
+        final String className;
+        final long instances;
+        final long bytes;
+
+        ClassDelta(String className, long instances, long bytes) {
+            this.className = className;
+            this.instances = instances;
+            this.bytes = bytes;
+        }
+    }
+
+    static final class Footprint {
+        final String strategy;
+        final int ipCount;
+        long bytes;
+        long instances;
+        final List<ClassDelta> topClasses = new ArrayList<>();
+
+        Footprint(String strategy, int ipCount) {
+            this.strategy = strategy;
+            this.ipCount = ipCount;
+        }
+
+        double getBytesPerIp() {
+            return (double) bytes / ipCount;
+        }
+
+        void print() {
+            System.out.printf("%n%s, IP数=%,d: 常驻 %,d B (%,d 个对象), 每IP %,.1f B%n",
+                    strategy, ipCount, bytes, instances, getBytesPerIp());
+            for (ClassDelta delta : topClasses) {
+                System.out.printf("    %,14d B  %,10d  %s%n", delta.bytes, delta.instances, delta.className);
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.test;
+
+import com.example.persistence.guard.BookRepositoryUnavailableException;
+import com.example.persistence.guard.GuardedBookRepository;
+import com.example.persistence.guard.LatencyInjector;
+import com.example.persistence.model.Book;
+import com.example.persistence.repo.BookRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 后端变慢时有无Sentinel保护的对比
+ *
+ * 用 {@link LatencyInjector} 给每条SQL加延迟，连接池只有 poolSize 个连接，线程数远大于连接数。
+ * 不加保护时所有线程都排队等连接，延迟随排队线性增长；加保护时并发上限等于连接数，多余请求立即拒绝。
+ * 辅助计数器：good 为 sloMs 内成功的调用（有效吞吐），slow 为超出 sloMs 的成功调用，
+ * rejected 为被Sentinel拒绝的调用。每次迭代打印成功调用的延迟分位数。
+ *
+ * 被拒绝的线程等待 rejectBackoffMs 再发下一个请求，模拟客户端收到503后退避；
+ * 否则闭环压测中被拒绝的线程会空转重试，抢占正常调用的CPU。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"--add-opens", "java.base/java.lang=ALL-UNNAMED"})
+@Threads(64)
+public class GuardedRepositoryBenchmark {
+
+    @Param({"UNGUARDED", "GUARDED"})
+    private String mode;
+
+    @Param({"0", "5", "20", "50"})
+    private long backendLatencyMs;
+
+    @Param({"10"})
+    private int poolSize;
+
+    @Param({"100"})
+    private long sloMs;
+
+    @Param({"1000"})
+    private int bookCount;
+
+    @Param({"5"})
+    private long rejectBackoffMs;
+
+    private ConfigurableApplicationContext context;
+    private BookRepository repository;
+    private GuardedBookRepository guardedRepository;
+    private long[] ids;
+    private long sloNanos;
+    private long rejectBackoffNanos;
+    private boolean guarded;
+    private final LatencyRecorder latencies = new LatencyRecorder();
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcomes {
+        public long good;
+        public long slow;
+        public long rejected;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            good = 0;
+            slow = 0;
+            rejected = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = AppContextSupport.start(
+                // 故障注入只在本测试中注册
+                "--spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                        + LatencyInjector.class.getName(),
+                "--spring.datasource.tomcat.max-active=" + poolSize,
+                "--spring.datasource.tomcat.max-idle=" + poolSize,
+                "--book.guard.max-concurrency=" + poolSize,
+                "--book.guard.slow-rt-ms=" + sloMs);
+        repository = context.getBean(BookRepository.class);
+        guardedRepository = context.getBean(GuardedBookRepository.class);
+
+        List<Book> books = new ArrayList<>(bookCount);
+        for (int i = 0; i < bookCount; i++) {
+            Book book = new Book();
+            book.setTitle("book-" + i);
+            book.setAuthor("author-" + i);
+            books.add(book);
+        }
+        ids = new long[bookCount];
+        int i = 0;
+        for (Book saved : repository.save(books)) {
+            ids[i++] = saved.getId();
+        }
+
+        sloNanos = TimeUnit.MILLISECONDS.toNanos(sloMs);
+        rejectBackoffNanos = TimeUnit.MILLISECONDS.toNanos(rejectBackoffMs);
+        guarded = "GUARDED".equals(mode);
+        // 加20%的随机抖动
+        LatencyInjector.setLatency(backendLatencyMs, backendLatencyMs / 5);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetLatencies() {
+        latencies.reset();
+    }
+
+    @Benchmark
+    public Optional<Book> findBook(Outcomes outcomes) {
+        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        long start = System.nanoTime();
+        Optional<Book> book;
+        try {
+            book = guarded ? guardedRepository.findOne(id) : repository.findOne(id);
+        } catch (BookRepositoryUnavailableException e) {
+            outcomes.rejected++;
+            LockSupport.parkNanos(rejectBackoffNanos);
+            return Optional.empty();
+        }
+
+        long latency = System.nanoTime() - start;
+        latencies.record(latency);
+        if (latency <= sloNanos) {
+            outcomes.good++;
+        } else {
+            outcomes.slow++;
+        }
+        return book;
+    }
+
+    @TearDown(Level.Iteration)
+    public void printLatencies() {
+        latencies.printStats(mode + " 后端延迟" + backendLatencyMs + "ms 成功调用");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        LatencyInjector.clear();
+        context.close();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(GuardedRepositoryBenchmark.class.getSimpleName())
+                .shouldDoGC(true)
+                .result("guarded_repository_results.json")
+                .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.JSON)
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.test;
+
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRuleManager;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按IP索引的热点参数例外项存储
+ *
+ * 规则加载后，把生效规则内部解析好的例外项表（parsedHotItems）替换成这里持有的 ConcurrentHashMap，
+ * 单个IP的新增、修改、删除直接写这张表，不再重新加载整条规则，其它IP的参数统计也不会被丢弃。
+ *
+ * 加载给Sentinel的规则 paramFlowItemList 保持为空：ParamFlowRule 的 hashCode 包含这个列表，
+ * 而参数统计按规则对象查找，列表越长每次请求的哈希开销越大，且修改列表会让已有统计查不到。
+ *
+ * ParamFlowChecker 先判断 keySet().contains 再 get，删除发生在两次调用之间时 get 会取到null，
+ * 生效表因此用 {@link HotItemMap}，取不到的IP按默认阈值处理（与没有例外项的限流效果相同），
+ * 删除可以直接移除键，IP频繁增删时表不会增长。
+ */
+public class HotspotExceptionStore {
+
+    private final String resource;
+    private final int defaultCount;
+    private final Map<String, Integer> exceptions = new ConcurrentHashMap<>();
+    private final Map<Object, Integer> liveHotItems;
+
+    public HotspotExceptionStore(String resource, int defaultCount) {
+        this.resource = resource;
+        this.defaultCount = defaultCount;
+        this.liveHotItems = new HotItemMap(defaultCount);
+    }
+
+    /**
+     * 取不到时 get 返回默认阈值的例外项表；containsKey 仍按实际内容判断，
+     * ConcurrentHashMap 的 containsKey 本身调用 get，所以一并覆盖
+     */
+    private static final class HotItemMap extends ConcurrentHashMap<Object, Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final Integer defaultCount;
+
+        HotItemMap(int defaultCount) {
+            this.defaultCount = defaultCount;
+        }
+
+        @Override
+        public Integer get(Object key) {
+            Integer count = super.get(key);
+            return count == null ? defaultCount : count;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return super.get(key) != null;
+        }
+    }
+
+    /**
+     * 构建交给 ParamFlowRuleManager 加载的规则，参数下标0为IP
+     */
+    public ParamFlowRule buildRule() {
+        return new ParamFlowRule(resource)
+                .setParamIdx(0)
+                .setGrade(RuleConstant.FLOW_GRADE_QPS)
+                .setCount(defaultCount)
+                .setParamFlowItemList(new ArrayList<>());
+    }
+
+    /**
+     * 在 ParamFlowRuleManager.loadRules 之后调用，把例外项表安装到生效规则上
+     */
+    public void attach() {
+        List<ParamFlowRule> rules = ParamFlowRuleManager.getRulesOfResource(resource);
+        if (rules.isEmpty()) {
+            throw new IllegalStateException("资源未加载热点参数规则: " + resource);
+        }
+        for (ParamFlowRule rule : rules) {
+            setParsedHotItems(rule, liveHotItems);
+        }
+    }
+
+    /**
+     * 新增或修改一个IP的例外阈值，阈值等于默认值时等同于删除
+     */
+    public void upsert(String ip, int qps) {
+        if (qps == defaultCount) {
+            delete(ip);
+            return;
+        }
+        exceptions.put(ip, qps);
+        liveHotItems.put(ip, qps);
+    }
+
+    public void delete(String ip) {
+        if (exceptions.remove(ip) != null) {
+            liveHotItems.remove(ip);
+        }
+    }
+
+    public Integer get(String ip) {
+        return exceptions.get(ip);
+    }
+
+    public int size() {
+        return exceptions.size();
+    }
+
+    public String getResource() {
+        return resource;
+    }
+
+    // setParsedHotItems 为包级私有方法，只在规则加载后调用一次
+    private static void setParsedHotItems(ParamFlowRule rule, Map<Object, Integer> hotItems) {
+        try {
+            Method method = ParamFlowRule.class.getDeclaredMethod("setParsedHotItems", Map.class);
+            method.setAccessible(true);
+            method.invoke(rule, hotItems);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("无法替换热点参数例外项表", e);
+        }
+    }
+}
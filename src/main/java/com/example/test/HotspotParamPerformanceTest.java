@@ -8,6 +8,7 @@ import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowItem;
 import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
 import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRuleManager;
 import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
 import org.openjdk.jmh.infra.Blackhole;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
@@ -16,9 +17,8 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 @State(Scope.Benchmark)
 @BenchmarkMode({Mode.Throughput, Mode.AverageTime})
@@ -34,8 +34,19 @@ public class HotspotParamPerformanceTest {
     @Param({"0.1", "0.3", "0.5"})
     private double exceptionRatio;  // 例外项比例
 
+    @Param({"SPIN"})
+    private String workload;  // 业务处理负载模型，见Workload
+
+    @Param({"10000000"})
+    private long businessNanos;  // 业务处理耗时，默认10ms
+
+    @Param({"UNIFORM"})
+    private String trafficDistribution;  // 请求IP的分布，见TrafficDistribution
+
     private List<String> ipAddresses;
     private HotspotParamStrategy strategy;
+    private Workload businessWorkload;
+    private TrafficDistribution traffic;
 
     // IP限流配置类
     public static class IpRateConfig {
@@ -113,40 +124,40 @@ public class HotspotParamPerformanceTest {
 
     // 指标收集器
     public static class MetricsCollector {
-        private static final AtomicLong totalRequests = new AtomicLong();
-        private static final AtomicLong passedRequests = new AtomicLong();
-        private static final AtomicLong blockedRequests = new AtomicLong();
-        private static final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
-        private static final List<Long> hotspotLatencies = Collections.synchronizedList(new ArrayList<>());
-        private static final List<Long> defaultLatencies = Collections.synchronizedList(new ArrayList<>());
+        private static final LongAdder totalRequests = new LongAdder();
+        private static final LongAdder passedRequests = new LongAdder();
+        private static final LongAdder blockedRequests = new LongAdder();
+        private static final LatencyRecorder latencies = new LatencyRecorder();
+        private static final LatencyRecorder hotspotLatencies = new LatencyRecorder();
+        private static final LatencyRecorder defaultLatencies = new LatencyRecorder();
 
         public static void record(long latency, boolean passed, boolean isHotspot) {
-            totalRequests.incrementAndGet();
+            totalRequests.increment();
             if (passed) {
-                passedRequests.incrementAndGet();
+                passedRequests.increment();
             } else {
-                blockedRequests.incrementAndGet();
+                blockedRequests.increment();
             }
-            latencies.add(latency);
+            latencies.record(latency);
 
             if (isHotspot) {
-                hotspotLatencies.add(latency);
+                hotspotLatencies.record(latency);
             } else {
-                defaultLatencies.add(latency);
+                defaultLatencies.record(latency);
             }
         }
 
         public static void reset() {
-            totalRequests.set(0);
-            passedRequests.set(0);
-            blockedRequests.set(0);
-            latencies.clear();
-            hotspotLatencies.clear();
-            defaultLatencies.clear();
+            totalRequests.reset();
+            passedRequests.reset();
+            blockedRequests.reset();
+            latencies.reset();
+            hotspotLatencies.reset();
+            defaultLatencies.reset();
         }
 
-        public static void printMetrics(int ipCount, double exceptionRatio) {
-            if (totalRequests.get() == 0) {
+        public static void printMetrics(int ipCount, double exceptionRatio, BenchmarkParams benchmarkParams) {
+            if (totalRequests.sum() == 0) {
                 return;
             }
 
@@ -155,9 +166,9 @@ public class HotspotParamPerformanceTest {
                     ipCount, exceptionRatio * 100);
             System.out.println("=".repeat(60));
 
-            long total = totalRequests.get();
-            long passed = passedRequests.get();
-            long blocked = blockedRequests.get();
+            long total = totalRequests.sum();
+            long passed = passedRequests.sum();
+            long blocked = blockedRequests.sum();
 
             System.out.printf("总请求数: %,d%n", total);
             System.out.printf("通过请求: %,d (%.2f%%)%n",
@@ -166,38 +177,13 @@ public class HotspotParamPerformanceTest {
                     blocked, blocked * 100.0 / total);
 
             // 延迟统计
-            printLatencyStats("整体", latencies);
-            printLatencyStats("热点参数", hotspotLatencies);
-            printLatencyStats("默认参数", defaultLatencies);
-        }
-
-        private static void printLatencyStats(String name, List<Long> latencies) {
-            if (latencies.isEmpty()) {
-                return;
-            }
-
-            List<Long> sorted = new ArrayList<>(latencies);
-            Collections.sort(sorted);
-            int size = sorted.size();
-
-            long p50 = sorted.get(size / 2);
-            long p90 = sorted.get((int) (size * 0.9));
-            long p95 = sorted.get((int) (size * 0.95));
-            long p99 = sorted.get((int) (size * 0.99));
+            latencies.printStats("整体");
+            hotspotLatencies.printStats("热点参数");
+            defaultLatencies.printStats("默认参数");
 
-            long sum = 0;
-            for (Long latency : sorted) {
-                sum += latency;
-            }
-            double avg = (double) sum / size;
-
-            System.out.printf("%n%s延迟统计:%n", name);
-            System.out.printf("  样本数: %,d%n", size);
-            System.out.printf("  平均: %.0f ns (%.2f ms)%n", avg, avg / 1_000_000.0);
-            System.out.printf("  P50: %,d ns (%.2f ms)%n", p50, p50 / 1_000_000.0);
-            System.out.printf("  P90: %,d ns (%.2f ms)%n", p90, p90 / 1_000_000.0);
-            System.out.printf("  P95: %,d ns (%.2f ms)%n", p95, p95 / 1_000_000.0);
-            System.out.printf("  P99: %,d ns (%.2f ms)%n", p99, p99 / 1_000_000.0);
+            latencies.appendLadder("HotspotParamPerformanceTest", "整体", benchmarkParams);
+            hotspotLatencies.appendLadder("HotspotParamPerformanceTest", "热点参数", benchmarkParams);
+            defaultLatencies.appendLadder("HotspotParamPerformanceTest", "默认参数", benchmarkParams);
         }
     }
 
@@ -205,6 +191,7 @@ public class HotspotParamPerformanceTest {
     public void setup() {
         // 重置指标收集器
         MetricsCollector.reset();
+        LatencyP99Counters.track(MetricsCollector.latencies);
 
         // 生成IP地址
         ipAddresses = generateIpAddresses(ipCount);
@@ -231,6 +218,8 @@ public class HotspotParamPerformanceTest {
         }
 
         strategy = new HotspotParamStrategy();
+        businessWorkload = Workload.valueOf(workload);
+        traffic = TrafficDistribution.parse(trafficDistribution, ipCount);
         long startTime = System.currentTimeMillis();
         strategy.initRules(configs);
         long loadTime = System.currentTimeMillis() - startTime;
@@ -244,8 +233,8 @@ public class HotspotParamPerformanceTest {
 
     @Benchmark
     @Threads(200)
-    public void testHotspotParam(Blackhole blackhole) {
-        int index = ThreadLocalRandom.current().nextInt(ipCount);
+    public void testHotspotParam(Blackhole blackhole, LatencyP99Counters latencyCounters) {
+        int index = traffic.next();
         String ip = ipAddresses.get(index);
 
         // 判断是否为热点IP（前exceptionRatio比例的IP）
@@ -265,9 +254,9 @@ public class HotspotParamPerformanceTest {
     }
 
     @TearDown(Level.Trial)
-    public void tearDown() {
+    public void tearDown(BenchmarkParams benchmarkParams) {
         // 打印性能指标
-        MetricsCollector.printMetrics(ipCount, exceptionRatio);
+        MetricsCollector.printMetrics(ipCount, exceptionRatio, benchmarkParams);
 
         // 内存使用情况
         Runtime runtime = Runtime.getRuntime();
@@ -316,12 +305,8 @@ public class HotspotParamPerformanceTest {
     }
 
     private Object processBusiness() {
-        // 模拟业务处理，耗时1-5ms，调整为固定10ms
-        long processTime = 10_000_000 ;// + ThreadLocalRandom.current().nextLong(4_000_000);
-        long start = System.nanoTime();
-        while (System.nanoTime() - start < processTime) {
-            // 忙等待模拟处理
-        }
+        // 模拟业务处理，方式由workload参数决定，默认忙等待10ms
+        businessWorkload.run(businessNanos);
         return "BusinessResult";
     }
 
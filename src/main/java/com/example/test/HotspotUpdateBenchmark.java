@@ -0,0 +1,105 @@
+package com.example.test;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单IP热点参数例外项更新的基准测试：整条规则重载 vs 按IP索引更新
+ *
+ * updateRule 测单次更新延迟；updateUnderLoad 组在1个线程持续更新的同时用7个线程走放行路径，
+ * 观察更新对请求尾延迟的影响。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class HotspotUpdateBenchmark {
+
+    @Param({"100000"})
+    private int ipCount;
+
+    @Param({"0.5"})
+    private double exceptionRatio;
+
+    @Param({"FULL_RELOAD", "INDEXED"})
+    private String updateMode;
+
+    @Param({"UNIFORM"})
+    private String trafficDistribution;
+
+    private List<String> ipAddresses;
+    private ComparisonPerformanceTest.RateLimitStrategy strategy;
+    private TrafficDistribution traffic;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ipAddresses = new ArrayList<>(ipCount);
+        for (int i = 0; i < ipCount; i++) {
+            ipAddresses.add(String.format("10.%d.%d.%d", (i / 65536) % 256, (i / 256) % 256, i % 256));
+        }
+
+        traffic = TrafficDistribution.parse(trafficDistribution, ipCount);
+        if ("INDEXED".equals(updateMode)) {
+            strategy = new ComparisonPerformanceTest.IndexedHotspotStrategy(exceptionRatio);
+        } else {
+            strategy = new ComparisonPerformanceTest.HotspotParamStrategy(exceptionRatio);
+        }
+
+        long startTime = System.currentTimeMillis();
+        strategy.initRules(ipAddresses, 100);
+        long loadTime = System.currentTimeMillis() - startTime;
+
+        System.out.printf("%n%s热点参数规则初始化完成: IP数=%d, 例外比例=%.1f%%, 耗时=%dms%n",
+                updateMode, ipCount, exceptionRatio * 100, loadTime);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void updateRule() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // 一半落在默认阈值上，覆盖新增、修改和删除例外项三种情况
+        int qps = random.nextBoolean() ? 100 : 50 + random.nextInt(150);
+        strategy.updateRule(ipAddresses.get(random.nextInt(ipCount)), qps);
+    }
+
+    @Benchmark
+    @Group("updateUnderLoad")
+    @GroupThreads(1)
+    public void update() {
+        updateRule();
+    }
+
+    @Benchmark
+    @Group("updateUnderLoad")
+    @GroupThreads(7)
+    public boolean allow() {
+        return strategy.allowRequest(ipAddresses.get(traffic.next()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        strategy.clearRules();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(HotspotUpdateBenchmark.class.getSimpleName())
+                .shouldDoGC(true)
+                .result("hotspot_update_results.json")
+                .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.JSON)
+                .jvmArgs("-Xmx4g", "-Xms4g", "-XX:+UseG1GC")
+                .build();
+
+        new Runner(options).run();
+    }
+}
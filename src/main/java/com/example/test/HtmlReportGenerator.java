@@ -0,0 +1,601 @@
+package com.example.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 把JMH结果文件和延迟阶梯合并为一个离线可打开的HTML报告
+ *
+ * 每个结果文件按基准方法分组：参数中有 ipCount/ruleCount 等规模参数时画 吞吐-规模 折线图，
+ * 其余变化的参数（如 strategyType）各成一条线；没有规模参数时画各参数组合的条形图。
+ * 延迟阶梯来自 {@link LatencyRecorder#LADDER_FILE}，按分位数画对数坐标折线图。
+ * 图表都是内联SVG，不引用任何外部脚本或样式。
+ *
+ * 参数: [输出文件] [结果文件...]，未指定结果文件时读取当前目录下所有 *_results.json
+ */
+public class HtmlReportGenerator {
+
+    public static final String DEFAULT_OUTPUT = "performance_report.html";
+
+    // 按优先级选择横轴参数
+    private static final List<String> SCALE_PARAMS = Arrays.asList("ipCount", "ruleCount", "shardCount", "batchSize", "bookCount");
+    private static final String[] PALETTE = {"#4e79a7", "#f28e2b", "#e15759", "#76b7b2", "#59a14f",
+            "#edc948", "#b07aa1", "#ff9da7", "#9c755f", "#bab0ac"};
+
+    private static final int WIDTH = 760;
+    private static final int HEIGHT = 340;
+    private static final int LEFT = 80;
+    private static final int RIGHT = 220;
+    private static final int TOP = 20;
+    private static final int BOTTOM = 50;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws IOException {
+        Path output = Paths.get(args.length > 0 ? args[0] : DEFAULT_OUTPUT);
+        List<Path> resultFiles = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            resultFiles.add(Paths.get(args[i]));
+        }
+        if (resultFiles.isEmpty()) {
+            resultFiles = findResultFiles(Paths.get("."));
+        }
+        generate(resultFiles, Paths.get(LatencyRecorder.LADDER_FILE), output);
+        System.out.println("报告已生成: " + output.toAbsolutePath());
+    }
+
+    public static List<Path> findResultFiles(Path dir) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*_results.json")) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        files.sort(null);
+        return files;
+    }
+
+    public static void generate(List<Path> resultFiles, Path ladderFile, Path output) throws IOException {
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html>\n<html lang=\"zh-CN\">\n<head>\n<meta charset=\"UTF-8\">\n")
+                .append("<title>Sentinel性能测试报告</title>\n<style>\n")
+                .append("body{font-family:sans-serif;margin:24px;color:#222;max-width:1100px}\n")
+                .append("h2{border-bottom:2px solid #4e79a7;padding-bottom:4px;margin-top:40px}\n")
+                .append("table{border-collapse:collapse;margin:8px 0 16px;font-size:13px}\n")
+                .append("th,td{border:1px solid #ccc;padding:3px 8px;text-align:left}\n")
+                .append("td.num{text-align:right;font-family:monospace}\n")
+                .append("svg{display:block;margin:8px 0}\n.meta td:first-child{font-weight:bold}\n")
+                .append("</style>\n</head>\n<body>\n<h1>Sentinel性能测试报告</h1>\n");
+
+        appendHostMetadata(html);
+
+        List<JsonNode> ladders = loadLadders(ladderFile);
+        appendLadderJvms(html, ladders);
+
+        for (Path file : resultFiles) {
+            JsonNode runs = MAPPER.readTree(file.toFile());
+            if (!runs.isArray() || runs.size() == 0) {
+                continue;
+            }
+            html.append("<h2>").append(escape(file.getFileName().toString())).append("</h2>\n");
+            appendRunMetadata(html, runs.get(0));
+            for (Map.Entry<String, List<JsonNode>> group : groupByBenchmark(runs).entrySet()) {
+                appendBenchmark(html, group.getKey(), group.getValue());
+            }
+        }
+
+        if (!ladders.isEmpty()) {
+            html.append("<h2>延迟分位数阶梯</h2>\n");
+            appendLadders(html, ladders);
+        }
+
+        html.append("</body>\n</html>\n");
+        Files.write(output, html.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void appendHostMetadata(StringBuilder html) {
+        Map<String, String> rows = new LinkedHashMap<>();
+        rows.put("生成时间", new java.util.Date().toString());
+        rows.put("操作系统", System.getProperty("os.name") + " " + System.getProperty("os.version")
+                + " (" + System.getProperty("os.arch") + ")");
+        rows.put("CPU核数", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        rows.put("生成报告的JVM", System.getProperty("java.version") + ", "
+                + ManagementFactory.getRuntimeMXBean().getVmName());
+        appendKeyValueTable(html, rows);
+    }
+
+    private static void appendRunMetadata(StringBuilder html, JsonNode run) {
+        Map<String, String> rows = new LinkedHashMap<>();
+        rows.put("JMH", run.path("jmhVersion").asText());
+        rows.put("JDK", run.path("jdkVersion").asText() + ", " + run.path("vmName").asText()
+                + " " + run.path("vmVersion").asText());
+        List<String> jvmArgs = new ArrayList<>();
+        run.path("jvmArgs").forEach(arg -> jvmArgs.add(arg.asText()));
+        rows.put("JVM参数", String.join(" ", jvmArgs));
+        rows.put("线程 / fork", run.path("threads").asText() + " / " + run.path("forks").asText());
+        rows.put("预热", run.path("warmupIterations").asText() + " × " + run.path("warmupTime").asText());
+        rows.put("测量", run.path("measurementIterations").asText() + " × " + run.path("measurementTime").asText());
+        appendKeyValueTable(html, rows);
+    }
+
+    /**
+     * 测试JVM的实际信息：延迟阶梯记录在fork出的JVM中写入，包含真实的堆参数和核数
+     */
+    private static void appendLadderJvms(StringBuilder html, List<JsonNode> ladders) {
+        Set<String> seen = new LinkedHashSet<>();
+        for (JsonNode ladder : ladders) {
+            JsonNode jvm = ladder.path("jvm");
+            List<String> heapFlags = new ArrayList<>();
+            for (JsonNode arg : jvm.path("args")) {
+                String text = arg.asText();
+                if (text.startsWith("-Xm") || text.startsWith("-Xss") || text.startsWith("-XX:")) {
+                    heapFlags.add(text);
+                }
+            }
+            seen.add(String.format(Locale.ROOT, "%s|%s|%d|%.0f MB|%s", jvm.path("version").asText(),
+                    jvm.path("vm").asText(), jvm.path("cores").asInt(),
+                    jvm.path("maxHeapBytes").asDouble() / 1024 / 1024, String.join(" ", heapFlags)));
+        }
+        if (seen.isEmpty()) {
+            return;
+        }
+        html.append("<h3>测试JVM</h3>\n<table><tr><th>Java</th><th>VM</th><th>核数</th><th>最大堆</th><th>堆/GC参数</th></tr>\n");
+        for (String row : seen) {
+            html.append("<tr>");
+            for (String cell : row.split("\\|", -1)) {
+                html.append("<td>").append(escape(cell)).append("</td>");
+            }
+            html.append("</tr>\n");
+        }
+        html.append("</table>\n");
+    }
+
+    private static void appendKeyValueTable(StringBuilder html, Map<String, String> rows) {
+        html.append("<table class=\"meta\">\n");
+        for (Map.Entry<String, String> row : rows.entrySet()) {
+            html.append("<tr><td>").append(escape(row.getKey())).append("</td><td>")
+                    .append(escape(row.getValue())).append("</td></tr>\n");
+        }
+        html.append("</table>\n");
+    }
+
+    private static Map<String, List<JsonNode>> groupByBenchmark(JsonNode runs) {
+        Map<String, List<JsonNode>> groups = new LinkedHashMap<>();
+        for (JsonNode run : runs) {
+            String benchmark = run.path("benchmark").asText();
+            String name = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1)
+                    + " [" + run.path("mode").asText() + "]";
+            groups.computeIfAbsent(name, k -> new ArrayList<>()).add(run);
+        }
+        return groups;
+    }
+
+    private static void appendBenchmark(StringBuilder html, String name, List<JsonNode> runs) {
+        String unit = runs.get(0).path("primaryMetric").path("scoreUnit").asText();
+        html.append("<h3>").append(escape(name)).append("</h3>\n");
+
+        // 只把在组内有变化的参数用作横轴和图例
+        Map<String, Set<String>> values = new TreeMap<>();
+        for (JsonNode run : runs) {
+            Iterator<Map.Entry<String, JsonNode>> fields = run.path("params").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                values.computeIfAbsent(field.getKey(), k -> new LinkedHashSet<>()).add(field.getValue().asText());
+            }
+        }
+        List<String> varying = new ArrayList<>();
+        for (Map.Entry<String, Set<String>> entry : values.entrySet()) {
+            if (entry.getValue().size() > 1) {
+                varying.add(entry.getKey());
+            }
+        }
+        String axis = null;
+        for (String candidate : SCALE_PARAMS) {
+            if (varying.contains(candidate)) {
+                axis = candidate;
+                break;
+            }
+        }
+
+        if (axis != null) {
+            List<String> xLabels = new ArrayList<>(values.get(axis));
+            xLabels.sort((a, b) -> Double.compare(Double.parseDouble(a), Double.parseDouble(b)));
+            Map<String, double[]> series = new LinkedHashMap<>();
+            Map<String, double[]> errors = new LinkedHashMap<>();
+            for (JsonNode run : runs) {
+                String key = paramLabel(run, varying, axis);
+                int x = xLabels.indexOf(run.path("params").path(axis).asText());
+                series.computeIfAbsent(key, k -> filled(xLabels.size()))[x] = run.path("primaryMetric").path("score").asDouble();
+                errors.computeIfAbsent(key, k -> filled(xLabels.size()))[x] = scoreError(run);
+            }
+            html.append(lineChart(xLabels, axis, series, errors, unit, false));
+        } else {
+            List<String> labels = new ArrayList<>();
+            double[] scores = new double[runs.size()];
+            double[] errors = new double[runs.size()];
+            for (int i = 0; i < runs.size(); i++) {
+                labels.add(varying.isEmpty() ? "" : paramLabel(runs.get(i), varying, null));
+                scores[i] = runs.get(i).path("primaryMetric").path("score").asDouble();
+                errors[i] = scoreError(runs.get(i));
+            }
+            html.append(barChart(labels, scores, errors, unit));
+        }
+
+        // 测试导出的辅助指标（@AuxCounters 等）各占一列，取每次迭代的均值
+        Set<String> secondary = new LinkedHashSet<>();
+        for (JsonNode run : runs) {
+            run.path("secondaryMetrics").fieldNames().forEachRemaining(secondary::add);
+        }
+        html.append("<table><tr><th>参数</th><th>得分</th><th>误差(99.9%)</th><th>单位</th>");
+        for (String metric : secondary) {
+            html.append("<th>").append(escape(metric)).append("</th>");
+        }
+        html.append("</tr>\n");
+        for (JsonNode run : runs) {
+            html.append("<tr><td>").append(escape(paramLabel(run, new ArrayList<>(values.keySet()), null)))
+                    .append("</td><td class=\"num\">").append(formatNumber(run.path("primaryMetric").path("score").asDouble()))
+                    .append("</td><td class=\"num\">").append(formatNumber(scoreError(run)))
+                    .append("</td><td>").append(escape(unit)).append("</td>");
+            for (String metric : secondary) {
+                html.append("<td class=\"num\">").append(formatSecondary(run, metric)).append("</td>");
+            }
+            html.append("</tr>\n");
+        }
+        html.append("</table>\n");
+    }
+
+    /**
+     * EVENTS 类型计数器的 score 是各次迭代之和，这里取 rawData 的均值，与每次迭代的含义一致
+     */
+    private static String formatSecondary(JsonNode run, String metric) {
+        double[] values = ResultAnalyzer.secondaryScores(run, metric);
+        if (values.length == 0) {
+            JsonNode score = run.path("secondaryMetrics").path(metric).path("score");
+            return score.isMissingNode() ? "" : formatNumber(score.asDouble());
+        }
+        return formatNumber(Arrays.stream(values).average().getAsDouble());
+    }
+
+    private static double scoreError(JsonNode run) {
+        double error = run.path("primaryMetric").path("scoreError").asDouble(Double.NaN);
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    private static String paramLabel(JsonNode run, List<String> params, String exclude) {
+        List<String> parts = new ArrayList<>();
+        for (String param : params) {
+            if (!param.equals(exclude)) {
+                parts.add(param + "=" + run.path("params").path(param).asText());
+            }
+        }
+        return parts.isEmpty() ? "score" : String.join(", ", parts);
+    }
+
+    private static double[] filled(int size) {
+        double[] values = new double[size];
+        Arrays.fill(values, Double.NaN);
+        return values;
+    }
+
+    static List<JsonNode> loadLadders(Path file) throws IOException {
+        // 同一 (测试, 系列, 测试方法, 模式, 参数) 只保留最后一次
+        Map<String, JsonNode> latest = new LinkedHashMap<>();
+        if (!Files.exists(file)) {
+            return new ArrayList<>();
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                JsonNode record = MAPPER.readTree(line);
+                String key = record.path("benchmark").asText() + "|" + record.path("series").asText()
+                        + "|" + record.path("method").asText() + "|" + record.path("mode").asText()
+                        + "|" + record.path("params");
+                latest.remove(key);
+                latest.put(key, record);
+            }
+        }
+        return new ArrayList<>(latest.values());
+    }
+
+    private static void appendLadders(StringBuilder html, List<JsonNode> ladders) {
+        Map<String, List<JsonNode>> byBenchmark = new LinkedHashMap<>();
+        for (JsonNode ladder : ladders) {
+            byBenchmark.computeIfAbsent(ladder.path("benchmark").asText(), k -> new ArrayList<>()).add(ladder);
+        }
+
+        List<String> xLabels = new ArrayList<>();
+        for (double percentile : LatencyRecorder.LADDER_PERCENTILES) {
+            xLabels.add("P" + formatPercentile(percentile));
+        }
+        xLabels.add("Max");
+
+        for (Map.Entry<String, List<JsonNode>> entry : byBenchmark.entrySet()) {
+            html.append("<h3>").append(escape(entry.getKey())).append("</h3>\n");
+            Map<String, double[]> series = new LinkedHashMap<>();
+            for (JsonNode ladder : entry.getValue()) {
+                double[] values = new double[xLabels.size()];
+                for (int i = 0; i < LatencyRecorder.LADDER_PERCENTILES.length; i++) {
+                    values[i] = ladder.path("percentilesNs")
+                            .path(String.valueOf(LatencyRecorder.LADDER_PERCENTILES[i])).asDouble();
+                }
+                values[values.length - 1] = ladder.path("maxNs").asDouble();
+                series.put(ladderLabel(ladder), values);
+            }
+            html.append(lineChart(xLabels, "分位数", series, null, "ns", true));
+
+            html.append("<table><tr><th>系列</th><th>样本数</th><th>平均</th>");
+            for (String label : xLabels) {
+                html.append("<th>").append(label).append("</th>");
+            }
+            html.append("</tr>\n");
+            for (JsonNode ladder : entry.getValue()) {
+                html.append("<tr><td>").append(escape(ladderLabel(ladder))).append("</td><td class=\"num\">")
+                        .append(String.format("%,d", ladder.path("count").asLong())).append("</td><td class=\"num\">")
+                        .append(formatNanos(ladder.path("meanNs").asDouble())).append("</td>");
+                for (double value : series.get(ladderLabel(ladder))) {
+                    html.append("<td class=\"num\">").append(formatNanos(value)).append("</td>");
+                }
+                html.append("</tr>\n");
+            }
+            html.append("</table>\n");
+        }
+    }
+
+    private static String ladderLabel(JsonNode ladder) {
+        List<String> parts = new ArrayList<>();
+        if (!ladder.path("series").asText().isEmpty()) {
+            parts.add(ladder.path("series").asText());
+        }
+        if (!ladder.path("mode").asText().isEmpty()) {
+            parts.add(ladder.path("mode").asText());
+        }
+        Iterator<Map.Entry<String, JsonNode>> fields = ladder.path("params").fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            parts.add(field.getKey() + "=" + field.getValue().asText());
+        }
+        return String.join(", ", parts);
+    }
+
+    /**
+     * 折线图：横轴为类别，errors 不为空时画误差线；logScale 时纵轴取常用对数
+     */
+    static String lineChart(List<String> xLabels, String xTitle, Map<String, double[]> series,
+                            Map<String, double[]> errors, String unit, boolean logScale) {
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (Map.Entry<String, double[]> entry : series.entrySet()) {
+            double[] error = errors == null ? null : errors.get(entry.getKey());
+            for (int i = 0; i < entry.getValue().length; i++) {
+                double value = entry.getValue()[i];
+                if (Double.isNaN(value) || (logScale && value <= 0)) {
+                    continue;
+                }
+                double spread = error == null ? 0 : error[i];
+                min = Math.min(min, value - spread);
+                max = Math.max(max, value + spread);
+            }
+        }
+        if (min > max) {
+            return "<p>无数据</p>\n";
+        }
+        Axis axis = logScale ? Axis.log(min, max) : Axis.linear(Math.min(0, min), max);
+
+        StringBuilder svg = new StringBuilder();
+        openSvg(svg);
+        appendYAxis(svg, axis, unit);
+        int plotWidth = WIDTH - LEFT - RIGHT;
+        double step = xLabels.size() > 1 ? (double) plotWidth / (xLabels.size() - 1) : 0;
+        double offset = xLabels.size() > 1 ? 0 : plotWidth / 2.0;
+        for (int i = 0; i < xLabels.size(); i++) {
+            double x = LEFT + offset + i * step;
+            svg.append(String.format(Locale.ROOT,
+                    "<text x=\"%.1f\" y=\"%d\" text-anchor=\"middle\" font-size=\"11\">%s</text>\n",
+                    x, HEIGHT - BOTTOM + 16, escape(xLabels.get(i))));
+        }
+        svg.append(String.format(Locale.ROOT, "<text x=\"%d\" y=\"%d\" text-anchor=\"middle\" font-size=\"12\">%s</text>\n",
+                LEFT + plotWidth / 2, HEIGHT - 10, escape(xTitle)));
+
+        int color = 0;
+        for (Map.Entry<String, double[]> entry : series.entrySet()) {
+            String stroke = PALETTE[color % PALETTE.length];
+            double[] values = entry.getValue();
+            double[] error = errors == null ? null : errors.get(entry.getKey());
+            StringBuilder path = new StringBuilder();
+            for (int i = 0; i < values.length; i++) {
+                if (Double.isNaN(values[i]) || (logScale && values[i] <= 0)) {
+                    continue;
+                }
+                double x = LEFT + offset + i * step;
+                double y = axis.toY(values[i]);
+                path.append(path.length() == 0 ? "M" : " L").append(String.format(Locale.ROOT, "%.1f %.1f", x, y));
+                svg.append(String.format(Locale.ROOT,
+                        "<circle cx=\"%.1f\" cy=\"%.1f\" r=\"3\" fill=\"%s\"><title>%s: %s %s</title></circle>\n",
+                        x, y, stroke, escape(entry.getKey()), formatNumber(values[i]), escape(unit)));
+                if (error != null && error[i] > 0) {
+                    svg.append(String.format(Locale.ROOT,
+                            "<line x1=\"%.1f\" y1=\"%.1f\" x2=\"%.1f\" y2=\"%.1f\" stroke=\"%s\"/>\n",
+                            x, axis.toY(values[i] - error[i]), x, axis.toY(values[i] + error[i]), stroke));
+                }
+            }
+            svg.append("<path d=\"").append(path).append("\" fill=\"none\" stroke=\"").append(stroke)
+                    .append("\" stroke-width=\"2\"/>\n");
+            appendLegend(svg, color, entry.getKey(), stroke);
+            color++;
+        }
+        return svg.append("</svg>\n").toString();
+    }
+
+    /**
+     * 条形图：每个参数组合一根，带误差线
+     */
+    static String barChart(List<String> labels, double[] values, double[] errors, String unit) {
+        double max = 0;
+        for (int i = 0; i < values.length; i++) {
+            max = Math.max(max, values[i] + errors[i]);
+        }
+        Axis axis = Axis.linear(0, max > 0 ? max : 1);
+
+        StringBuilder svg = new StringBuilder();
+        openSvg(svg);
+        appendYAxis(svg, axis, unit);
+        int plotWidth = WIDTH - LEFT - RIGHT;
+        double slot = (double) plotWidth / values.length;
+        double barWidth = Math.min(60, slot * 0.7);
+        for (int i = 0; i < values.length; i++) {
+            String fill = PALETTE[i % PALETTE.length];
+            double x = LEFT + slot * i + (slot - barWidth) / 2;
+            double y = axis.toY(values[i]);
+            svg.append(String.format(Locale.ROOT,
+                    "<rect x=\"%.1f\" y=\"%.1f\" width=\"%.1f\" height=\"%.1f\" fill=\"%s\"><title>%s: %s %s</title></rect>\n",
+                    x, y, barWidth, axis.toY(0) - y, fill, escape(labels.get(i)), formatNumber(values[i]), escape(unit)));
+            if (errors[i] > 0) {
+                double center = x + barWidth / 2;
+                svg.append(String.format(Locale.ROOT,
+                        "<line x1=\"%.1f\" y1=\"%.1f\" x2=\"%.1f\" y2=\"%.1f\" stroke=\"#333\"/>\n",
+                        center, axis.toY(values[i] - errors[i]), center, axis.toY(values[i] + errors[i])));
+            }
+            appendLegend(svg, i, labels.get(i), fill);
+        }
+        return svg.append("</svg>\n").toString();
+    }
+
+    private static void openSvg(StringBuilder svg) {
+        svg.append(String.format(Locale.ROOT,
+                "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" height=\"%d\" viewBox=\"0 0 %d %d\" font-family=\"sans-serif\">\n",
+                WIDTH, HEIGHT, WIDTH, HEIGHT));
+        svg.append(String.format(Locale.ROOT,
+                "<rect x=\"%d\" y=\"%d\" width=\"%d\" height=\"%d\" fill=\"#fafafa\" stroke=\"#999\"/>\n",
+                LEFT, TOP, WIDTH - LEFT - RIGHT, HEIGHT - TOP - BOTTOM));
+    }
+
+    private static void appendYAxis(StringBuilder svg, Axis axis, String unit) {
+        for (double tick : axis.ticks()) {
+            double y = axis.toY(tick);
+            svg.append(String.format(Locale.ROOT,
+                    "<line x1=\"%d\" y1=\"%.1f\" x2=\"%d\" y2=\"%.1f\" stroke=\"#e0e0e0\"/>\n"
+                            + "<text x=\"%d\" y=\"%.1f\" text-anchor=\"end\" font-size=\"11\">%s</text>\n",
+                    LEFT, y, WIDTH - RIGHT, y, LEFT - 6, y + 4, formatNumber(tick)));
+        }
+        svg.append(String.format(Locale.ROOT,
+                "<text x=\"14\" y=\"%d\" font-size=\"12\" transform=\"rotate(-90 14 %d)\" text-anchor=\"middle\">%s</text>\n",
+                TOP + (HEIGHT - TOP - BOTTOM) / 2, TOP + (HEIGHT - TOP - BOTTOM) / 2, escape(unit)));
+    }
+
+    private static void appendLegend(StringBuilder svg, int index, String label, String color) {
+        int y = TOP + 10 + index * 18;
+        int x = WIDTH - RIGHT + 12;
+        svg.append(String.format(Locale.ROOT,
+                "<rect x=\"%d\" y=\"%d\" width=\"12\" height=\"12\" fill=\"%s\"/>"
+                        + "<text x=\"%d\" y=\"%d\" font-size=\"11\">%s</text>\n",
+                x, y - 10, color, x + 18, y, escape(label)));
+    }
+
+    /**
+     * 纵轴映射：线性或常用对数
+     */
+    private static final class Axis {
+        private final double min;
+        private final double max;
+        private final boolean log;
+
+        private Axis(double min, double max, boolean log) {
+            this.min = min;
+            this.max = max == min ? min + 1 : max;
+            this.log = log;
+        }
+
+        static Axis linear(double min, double max) {
+            double step = niceStep((max - min) / 5);
+            return new Axis(Math.floor(min / step) * step, Math.ceil(max / step) * step, false);
+        }
+
+        static Axis log(double min, double max) {
+            return new Axis(Math.floor(Math.log10(Math.max(min, 1e-9))), Math.ceil(Math.log10(max)), true);
+        }
+
+        double toY(double value) {
+            double v = log ? Math.log10(Math.max(value, Math.pow(10, min))) : value;
+            return TOP + (HEIGHT - TOP - BOTTOM) * (1 - (v - min) / (max - min));
+        }
+
+        List<Double> ticks() {
+            List<Double> ticks = new ArrayList<>();
+            if (log) {
+                for (double exponent = min; exponent <= max; exponent++) {
+                    ticks.add(Math.pow(10, exponent));
+                }
+            } else {
+                double step = niceStep((max - min) / 5);
+                for (double tick = min; tick <= max + step / 2; tick += step) {
+                    ticks.add(tick);
+                }
+            }
+            return ticks;
+        }
+
+        private static double niceStep(double rough) {
+            if (rough <= 0) {
+                return 1;
+            }
+            double magnitude = Math.pow(10, Math.floor(Math.log10(rough)));
+            double fraction = rough / magnitude;
+            double nice = fraction <= 1 ? 1 : fraction <= 2 ? 2 : fraction <= 5 ? 5 : 10;
+            return nice * magnitude;
+        }
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    private static String formatNanos(double nanos) {
+        if (nanos >= 1_000_000) {
+            return String.format(Locale.ROOT, "%.2f ms", nanos / 1_000_000);
+        }
+        if (nanos >= 1_000) {
+            return String.format(Locale.ROOT, "%.1f us", nanos / 1_000);
+        }
+        return String.format(Locale.ROOT, "%.0f ns", nanos);
+    }
+
+    private static String formatNumber(double value) {
+        if (Double.isNaN(value)) {
+            return "-";
+        }
+        double abs = Math.abs(value);
+        if (abs == 0) {
+            return "0";
+        }
+        if (abs >= 0.01 && abs < 1e6) {
+            return String.format(Locale.ROOT, abs >= 100 ? "%,.0f" : "%.3g", value);
+        }
+        return String.format(Locale.ROOT, "%.3g", value);
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
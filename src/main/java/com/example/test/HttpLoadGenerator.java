@@ -0,0 +1,147 @@
+package com.example.test;
+
+import com.example.config.Application;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 端到端HTTP压测：在进程内启动Spring应用，分别在开启和关闭客户端IP限流过滤器时压测首页
+ *
+ * 每个请求带一个从IP池中随机选出的 X-Forwarded-For，压测时把本机回环地址配置为可信代理，
+ * 过滤器按该IP限流。
+ * 统计每秒请求数、通过/限流/失败数以及端到端延迟分位数。
+ * 参数: [线程数] [每轮秒数] [IP数]。JDK 16+ 上需加 --add-opens java.base/java.lang=ALL-UNNAMED 启动。
+ */
+public class HttpLoadGenerator {
+
+    private final int threads;
+    private final int durationSeconds;
+    private final int ipCount;
+
+    private final LongAdder okResponses = new LongAdder();
+    private final LongAdder limitedResponses = new LongAdder();
+    private final LongAdder failedRequests = new LongAdder();
+    private final LatencyRecorder latencies = new LatencyRecorder();
+
+    public HttpLoadGenerator(int threads, int durationSeconds, int ipCount) {
+        this.threads = threads;
+        this.durationSeconds = durationSeconds;
+        this.ipCount = ipCount;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int durationSeconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int ipCount = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+        // devtools会在新的类加载器中重启应用，压测时关闭
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        for (boolean filterEnabled : new boolean[]{false, true}) {
+            new HttpLoadGenerator(threads, durationSeconds, ipCount).run(filterEnabled);
+        }
+    }
+
+    public void run(boolean filterEnabled) throws InterruptedException {
+        ConfigurableApplicationContext context = SpringApplication.run(Application.class,
+                "--ratelimit.enabled=" + filterEnabled,
+                "--ratelimit.trust-forwarded-for=true",
+                "--ratelimit.trusted-proxies=127.0.0.1,0:0:0:0:0:0:0:1");
+        try {
+            String port = context.getEnvironment().getProperty("server.port", "8080");
+            String url = "http://localhost:" + port + "/";
+
+            // 预热
+            drive(url, 3);
+            okResponses.reset();
+            limitedResponses.reset();
+            failedRequests.reset();
+            latencies.reset();
+
+            long start = System.nanoTime();
+            drive(url, durationSeconds);
+            double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            printMetrics(filterEnabled, elapsedSeconds);
+        } finally {
+            context.close();
+        }
+    }
+
+    private void drive(String url, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> workers = new ArrayList<>(threads);
+
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    sendRequest(url);
+                }
+            }, "http-load-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private void sendRequest(String url) {
+        int index = ThreadLocalRandom.current().nextInt(ipCount);
+        String clientIp = "10.0." + (index / 256) % 256 + "." + index % 256;
+
+        long start = System.nanoTime();
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setRequestProperty("X-Forwarded-For", clientIp);
+            int status = connection.getResponseCode();
+            // 读完响应体，让连接可以被keep-alive复用
+            InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            if (body != null) {
+                byte[] buffer = new byte[4096];
+                while (body.read(buffer) >= 0) {
+                    // 丢弃
+                }
+                body.close();
+            }
+            latencies.record(System.nanoTime() - start);
+
+            if (status == 200) {
+                okResponses.increment();
+            } else if (status == 429) {
+                limitedResponses.increment();
+            } else {
+                failedRequests.increment();
+            }
+        } catch (IOException e) {
+            failedRequests.increment();
+        }
+    }
+
+    private void printMetrics(boolean filterEnabled, double elapsedSeconds) {
+        long ok = okResponses.sum();
+        long limited = limitedResponses.sum();
+        long failed = failedRequests.sum();
+        long total = ok + limited + failed;
+
+        System.out.println("\n" + "=".repeat(60));
+        System.out.printf("HTTP端到端压测 (限流过滤器: %s, 线程数: %d, IP数: %d)%n",
+                filterEnabled ? "开启" : "关闭", threads, ipCount);
+        System.out.println("=".repeat(60));
+        System.out.printf("总请求数: %,d (%.0f 请求/秒)%n", total, total / elapsedSeconds);
+        System.out.printf("成功响应: %,d (%.0f 请求/秒)%n", ok, ok / elapsedSeconds);
+        System.out.printf("限流响应: %,d%n", limited);
+        System.out.printf("失败请求: %,d%n", failed);
+
+        latencies.printStats("端到端");
+    }
+}
@@ -8,6 +8,7 @@ import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
 import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
 import org.openjdk.jmh.infra.Blackhole;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
@@ -16,9 +17,8 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 @State(Scope.Benchmark)
 @BenchmarkMode({Mode.Throughput, Mode.AverageTime})
@@ -31,9 +31,20 @@ public class IndependentRulePerformanceTest {
     @Param({"100", "500", "1000", "2000", "5000"})
     private int ruleCount;
 
+    @Param({"SPIN"})
+    private String workload;  // 业务处理负载模型，见Workload
+
+    @Param({"10000000"})
+    private long businessNanos;  // 业务处理耗时，默认10ms
+
+    @Param({"UNIFORM"})
+    private String trafficDistribution;  // 请求IP的分布，见TrafficDistribution
+
     private List<String> ipAddresses;
     private IndependentRuleStrategy strategy;
     private MetricsCollector metricsCollector;
+    private Workload businessWorkload;
+    private TrafficDistribution traffic;
 
     // 独立规则策略实现
     public static class IndependentRuleStrategy {
@@ -79,30 +90,30 @@ public class IndependentRulePerformanceTest {
 
     // 指标收集器
     public static class MetricsCollector {
-        private static final AtomicLong totalRequests = new AtomicLong();
-        private static final AtomicLong passedRequests = new AtomicLong();
-        private static final AtomicLong blockedRequests = new AtomicLong();
-        private static final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        private static final LongAdder totalRequests = new LongAdder();
+        private static final LongAdder passedRequests = new LongAdder();
+        private static final LongAdder blockedRequests = new LongAdder();
+        private static final LatencyRecorder latencies = new LatencyRecorder();
 
         public static void record(long latency, boolean passed) {
-            totalRequests.incrementAndGet();
+            totalRequests.increment();
             if (passed) {
-                passedRequests.incrementAndGet();
+                passedRequests.increment();
             } else {
-                blockedRequests.incrementAndGet();
+                blockedRequests.increment();
             }
-            latencies.add(latency);
+            latencies.record(latency);
         }
 
         public static void reset() {
-            totalRequests.set(0);
-            passedRequests.set(0);
-            blockedRequests.set(0);
-            latencies.clear();
+            totalRequests.reset();
+            passedRequests.reset();
+            blockedRequests.reset();
+            latencies.reset();
         }
 
-        public static void printMetrics(int ruleCount) {
-            if (totalRequests.get() == 0) {
+        public static void printMetrics(int ruleCount, BenchmarkParams benchmarkParams) {
+            if (totalRequests.sum() == 0) {
                 return;
             }
 
@@ -111,9 +122,9 @@ public class IndependentRulePerformanceTest {
             System.out.println("性能指标统计 (规则数: " + ruleCount + ")");
             System.out.println("\n" + new String(new char[60]).replace("\0", "="));
 
-            long total = totalRequests.get();
-            long passed = passedRequests.get();
-            long blocked = blockedRequests.get();
+            long total = totalRequests.sum();
+            long passed = passedRequests.sum();
+            long blocked = blockedRequests.sum();
 
             System.out.printf("总请求数: %,d\n", total);
             System.out.printf("通过请求: %,d (%.2f%%)\n",
@@ -121,24 +132,8 @@ public class IndependentRulePerformanceTest {
             System.out.printf("限流请求: %,d (%.2f%%)\n",
                     blocked, blocked * 100.0 / total);
 
-            if (!latencies.isEmpty()) {
-                Collections.sort(latencies);
-                int size = latencies.size();
-                long p50 = latencies.get(size / 2);
-                long p90 = latencies.get((int) (size * 0.9));
-                long p95 = latencies.get((int) (size * 0.95));
-                long p99 = latencies.get((int) (size * 0.99));
-
-                System.out.printf("\n延迟统计 (纳秒):\n");
-                System.out.printf("  P50: %,d ns (%.2f ms)\n", p50, p50 / 1_000_000.0);
-                System.out.printf("  P90: %,d ns (%.2f ms)\n", p90, p90 / 1_000_000.0);
-                System.out.printf("  P95: %,d ns (%.2f ms)\n", p95, p95 / 1_000_000.0);
-                System.out.printf("  P99: %,d ns (%.2f ms)\n", p99, p99 / 1_000_000.0);
-
-                // 计算平均值
-                double avg = latencies.stream().mapToLong(Long::longValue).average().orElse(0);
-                System.out.printf("  平均: %.0f ns (%.2f ms)\n", avg, avg / 1_000_000.0);
-            }
+            latencies.printStats("");
+            latencies.appendLadder("IndependentRulePerformanceTest", "INDEPENDENT", benchmarkParams);
         }
     }
 
@@ -146,12 +141,15 @@ public class IndependentRulePerformanceTest {
     public void setup() {
         // 重置指标收集器
         MetricsCollector.reset();
+        LatencyP99Counters.track(MetricsCollector.latencies);
 
         // 生成IP地址
         ipAddresses = generateIpAddresses(ruleCount);
 
         // 初始化独立规则
         strategy = new IndependentRuleStrategy();
+        businessWorkload = Workload.valueOf(workload);
+        traffic = TrafficDistribution.parse(trafficDistribution, ruleCount);
         long startTime = System.currentTimeMillis();
         strategy.initRules(ipAddresses, 100);
         long loadTime = System.currentTimeMillis() - startTime;
@@ -165,9 +163,8 @@ public class IndependentRulePerformanceTest {
 
     @Benchmark
     @Threads(100)
-    public void testIndependentRule(Blackhole blackhole) {
-        String ip = ipAddresses.get(
-                ThreadLocalRandom.current().nextInt(ruleCount));
+    public void testIndependentRule(Blackhole blackhole, LatencyP99Counters latencyCounters) {
+        String ip = ipAddresses.get(traffic.next());
 
         long start = System.nanoTime();
         boolean allowed = strategy.allowRequest(ip);
@@ -184,9 +181,9 @@ public class IndependentRulePerformanceTest {
     }
 
     @TearDown(Level.Trial)
-    public void tearDown() {
+    public void tearDown(BenchmarkParams benchmarkParams) {
         // 打印性能指标
-        MetricsCollector.printMetrics(ruleCount);
+        MetricsCollector.printMetrics(ruleCount, benchmarkParams);
 
         // 统计ClusterNode数量
         int nodeCount = ClusterBuilderSlot.getClusterNodeMap().size();
@@ -237,12 +234,8 @@ public class IndependentRulePerformanceTest {
     }
 
     private Object processBusiness() {
-        // 模拟业务处理，耗时1-5ms，调整为固定10ms
-        long processTime = 10_000_000 ;// + ThreadLocalRandom.current().nextLong(4_000_000);
-        long start = System.nanoTime();
-        while (System.nanoTime() - start < processTime) {
-            // 忙等待模拟处理
-        }
+        // 模拟业务处理，方式由workload参数决定，默认忙等待10ms
+        businessWorkload.run(businessNanos);
         return "BusinessResult";
     }
 
@@ -0,0 +1,72 @@
+package com.example.test;
+
+/**
+ * IPv4地址工具类
+ *
+ * 把IPv4地址打包成一个int（网络字节序，第一段在最高位），避免在请求路径上格式化和哈希字符串。
+ */
+public final class Ipv4 {
+
+    private Ipv4() {
+    }
+
+    /**
+     * 从socket读到的4个字节打包
+     */
+    public static int pack(byte[] address) {
+        return pack(address[0], address[1], address[2], address[3]);
+    }
+
+    public static int pack(int b0, int b1, int b2, int b3) {
+        return (b0 & 0xFF) << 24 | (b1 & 0xFF) << 16 | (b2 & 0xFF) << 8 | (b3 & 0xFF);
+    }
+
+    /**
+     * 解析点分十进制字符串，不分配中间对象
+     */
+    public static int parse(CharSequence ip) {
+        int result = 0;
+        int octet = 0;
+        int digits = 0;
+        int dots = 0;
+
+        for (int i = 0; i < ip.length(); i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = octet * 10 + (c - '0');
+                if (++digits > 3 || octet > 255) {
+                    throw new IllegalArgumentException("非法IPv4地址: " + ip);
+                }
+            } else if (c == '.' && digits > 0 && dots < 3) {
+                result = result << 8 | octet;
+                octet = 0;
+                digits = 0;
+                dots++;
+            } else {
+                throw new IllegalArgumentException("非法IPv4地址: " + ip);
+            }
+        }
+
+        if (dots != 3 || digits == 0) {
+            throw new IllegalArgumentException("非法IPv4地址: " + ip);
+        }
+        return result << 8 | octet;
+    }
+
+    public static String format(int ip) {
+        return (ip >>> 24) + "." + (ip >>> 16 & 0xFF) + "." + (ip >>> 8 & 0xFF) + "." + (ip & 0xFF);
+    }
+
+    /**
+     * 32位整数混淆（murmur3 fmix32），用于开放寻址表的散列
+     */
+    static int mix(int key) {
+        int h = key;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.test;
+
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IP到资源名查找的基准测试：字符串路径 vs 打包int路径
+ *
+ * 模拟网关从socket拿到4字节地址的场景：
+ * STRING 路径先格式化为点分字符串再查 ConcurrentHashMap，PACKED 路径直接打包成int查开放寻址表。
+ * 只测查找本身，不进入 SphU.entry（超过6000个资源后Sentinel不再为新资源创建slot chain）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class Ipv4LookupBenchmark {
+
+    @Param({"10000", "100000"})
+    private int ipCount;
+
+    @Param({"STRING", "PACKED"})
+    private String keyPath;
+
+    @Param({"UNIFORM"})
+    private String trafficDistribution;
+
+    private byte[][] rawAddresses;
+    private boolean packed;
+    private TrafficDistribution traffic;
+    private ComparisonPerformanceTest.IndependentRuleStrategy strategy;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<String> ips = new ArrayList<>(ipCount);
+        rawAddresses = new byte[ipCount][];
+
+        for (int i = 0; i < ipCount; i++) {
+            byte[] address = {10, (byte) (i >>> 16), (byte) (i >>> 8), (byte) i};
+            rawAddresses[i] = address;
+            ips.add(Ipv4.format(Ipv4.pack(address)));
+        }
+
+        packed = "PACKED".equals(keyPath);
+        traffic = TrafficDistribution.parse(trafficDistribution, ipCount);
+        strategy = new ComparisonPerformanceTest.IndependentRuleStrategy();
+        strategy.initRules(ips, 100);
+    }
+
+    @Benchmark
+    public String lookup() {
+        byte[] address = rawAddresses[traffic.next()];
+
+        if (packed) {
+            return strategy.resolveResource(Ipv4.pack(address));
+        }
+        String ip = (address[0] & 0xFF) + "." + (address[1] & 0xFF) + "."
+                + (address[2] & 0xFF) + "." + (address[3] & 0xFF);
+        return strategy.resolveResource(ip);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        FlowRuleManager.loadRules(new ArrayList<>());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(Ipv4LookupBenchmark.class.getSimpleName())
+                .result("ipv4_lookup_results.json")
+                .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.JSON)
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.test;
+
+import java.util.Arrays;
+
+/**
+ * IPv4前缀的路径压缩二叉trie，按打包int做最长前缀匹配
+ *
+ * 节点存放在并行int数组中，只有分叉点和带值的前缀才会成为节点，查找最多经过33个节点，
+ * 不分配对象。构建阶段单线程插入，发布后只读，可被多个线程并发查询。
+ */
+public class Ipv4PrefixTrie {
+
+    public static final int NO_MATCH = -1;
+    private static final int NO_CHILD = -1;
+    private static final int ROOT = 0;
+
+    private int[] prefixes;
+    private byte[] lengths;
+    private int[] leftChildren;
+    private int[] rightChildren;
+    private int[] slots;
+    private int nodeCount;
+    private int prefixCount;
+
+    public Ipv4PrefixTrie() {
+        this(16);
+    }
+
+    public Ipv4PrefixTrie(int expectedPrefixes) {
+        // 每个前缀最多带来一个叶子和一个分叉点
+        int capacity = Math.max(16, expectedPrefixes * 2);
+        prefixes = new int[capacity];
+        lengths = new byte[capacity];
+        leftChildren = new int[capacity];
+        rightChildren = new int[capacity];
+        slots = new int[capacity];
+        newNode(0, 0, NO_MATCH);
+    }
+
+    /**
+     * 插入前缀，重复插入同一前缀时覆盖原有槽位
+     *
+     * @param prefix 打包的IPv4地址，超出前缀长度的位会被忽略
+     * @param length 前缀长度 0-32
+     * @param slot   非负的限流槽位编号
+     */
+    public void insert(int prefix, int length, int slot) {
+        if (length < 0 || length > 32) {
+            throw new IllegalArgumentException("非法前缀长度: " + length);
+        }
+        if (slot < 0) {
+            throw new IllegalArgumentException("slot必须为非负数: " + slot);
+        }
+        int key = prefix & mask(length);
+        int node = ROOT;
+
+        while (true) {
+            int nodeLength = lengths[node];
+            if (nodeLength == length) {
+                if (slots[node] == NO_MATCH) {
+                    prefixCount++;
+                }
+                slots[node] = slot;
+                return;
+            }
+
+            int bit = bitAt(key, nodeLength);
+            int child = child(node, bit);
+            if (child == NO_CHILD) {
+                setChild(node, bit, newNode(key, length, slot));
+                prefixCount++;
+                return;
+            }
+
+            int childLength = lengths[child];
+            int common = Math.min(Math.min(length, childLength),
+                    Integer.numberOfLeadingZeros(key ^ prefixes[child]));
+            if (common == childLength) {
+                node = child;
+                continue;
+            }
+
+            // 新前缀与子节点在common位后分叉，或者新前缀本身是子节点的前缀
+            int split;
+            if (common == length) {
+                split = newNode(key, length, slot);
+            } else {
+                split = newNode(key & mask(common), common, NO_MATCH);
+                setChild(split, bitAt(key, common), newNode(key, length, slot));
+            }
+            setChild(split, bitAt(prefixes[child], common), child);
+            setChild(node, bit, split);
+            prefixCount++;
+            return;
+        }
+    }
+
+    /**
+     * 最长前缀匹配，没有匹配的前缀时返回 {@link #NO_MATCH}
+     */
+    public int lookup(int ip) {
+        int best = slots[ROOT];
+        int node = ROOT;
+
+        while (lengths[node] < 32) {
+            int child = bitAt(ip, lengths[node]) == 0 ? leftChildren[node] : rightChildren[node];
+            if (child == NO_CHILD || ((ip ^ prefixes[child]) & mask(lengths[child])) != 0) {
+                break;
+            }
+            node = child;
+            if (slots[node] != NO_MATCH) {
+                best = slots[node];
+            }
+        }
+        return best;
+    }
+
+    public int getPrefixCount() {
+        return prefixCount;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    private int newNode(int prefix, int length, int slot) {
+        if (nodeCount == prefixes.length) {
+            int capacity = nodeCount * 2;
+            prefixes = Arrays.copyOf(prefixes, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            leftChildren = Arrays.copyOf(leftChildren, capacity);
+            rightChildren = Arrays.copyOf(rightChildren, capacity);
+            slots = Arrays.copyOf(slots, capacity);
+        }
+        int node = nodeCount++;
+        prefixes[node] = prefix;
+        lengths[node] = (byte) length;
+        leftChildren[node] = NO_CHILD;
+        rightChildren[node] = NO_CHILD;
+        slots[node] = slot;
+        return node;
+    }
+
+    private int child(int node, int bit) {
+        return bit == 0 ? leftChildren[node] : rightChildren[node];
+    }
+
+    private void setChild(int node, int bit, int child) {
+        if (bit == 0) {
+            leftChildren[node] = child;
+        } else {
+            rightChildren[node] = child;
+        }
+    }
+
+    private static int bitAt(int key, int index) {
+        return (key >>> (31 - index)) & 1;
+    }
+
+    private static int mask(int length) {
+        return length == 0 ? 0 : -1 << (32 - length);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.test;
+
+import java.util.Arrays;
+
+/**
+ * 打包IPv4到int句柄的开放寻址表
+ *
+ * 线性探测、负载因子不超过0.5，键和值分别存放在两个int数组中，查询时不装箱、不分配对象。
+ * 初始化阶段单线程写入，发布后只读，可被多个线程并发查询。
+ */
+public class Ipv4Table {
+
+    public static final int MISSING = -1;
+
+    private final int[] keys;
+    private final int[] values;
+    private final int mask;
+    private int size;
+
+    public Ipv4Table(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+        mask = capacity - 1;
+    }
+
+    /**
+     * 写入映射，value 必须为非负数
+     */
+    public void put(int ip, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("value必须为非负数: " + value);
+        }
+
+        int index = Ipv4.mix(ip) & mask;
+        while (values[index] != MISSING) {
+            if (keys[index] == ip) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        // 只有新增键才占用容量，覆盖已有键不受限
+        if (size >= keys.length / 2) {
+            throw new IllegalStateException("Ipv4Table容量已满: " + size);
+        }
+        keys[index] = ip;
+        values[index] = value;
+        size++;
+    }
+
+    /**
+     * 查询句柄，不存在时返回 {@link #MISSING}
+     */
+    public int get(int ip) {
+        int index = Ipv4.mix(ip) & mask;
+        int value;
+        while ((value = values[index]) != MISSING) {
+            if (keys[index] == ip) {
+                return value;
+            }
+            index = (index + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    public int size() {
+        return size;
+    }
+}
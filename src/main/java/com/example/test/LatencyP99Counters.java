@@ -0,0 +1,54 @@
+package com.example.test;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * 每次迭代的请求延迟P99，作为JMH辅助指标 p99Ns 写入结果文件，供 ResultAnalyzer 判定回归
+ *
+ * 测试在 Level.Trial 的 @Setup 中用 {@link #track} 指定记录请求延迟的 {@link LatencyRecorder}，
+ * 并把本类作为 @Benchmark 方法的参数。迭代开始和结束时各取一次快照，两者之差即本次迭代的样本。
+ * JMH 只收集辅助计数器类自身声明的字段，所以各测试共用这一个类，而不是各自继承。
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class LatencyP99Counters {
+
+    private static volatile LatencyRecorder recorder;
+
+    // 只由0号线程填写，JMH对各线程求和后仍是本次迭代的P99
+    public long p99Ns;
+    private LatencyRecorder.Snapshot start;
+
+    public static void track(LatencyRecorder latencies) {
+        recorder = latencies;
+    }
+
+    @Setup(Level.Iteration)
+    public void begin(ThreadParams threadParams) {
+        p99Ns = 0;
+        if (threadParams.getThreadIndex() == 0) {
+            start = recorder().snapshot();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void collect(ThreadParams threadParams) {
+        if (threadParams.getThreadIndex() == 0) {
+            p99Ns = recorder().snapshot().minus(start).getValueAtPercentile(99);
+        }
+    }
+
+    private static LatencyRecorder recorder() {
+        LatencyRecorder current = recorder;
+        if (current == null) {
+            throw new IllegalStateException("未指定延迟记录器，测试应在 Level.Trial 的 @Setup 中调用 track");
+        }
+        return current;
+    }
+}
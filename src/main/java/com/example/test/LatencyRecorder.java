@@ -0,0 +1,253 @@
+package com.example.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁延迟记录器
+ *
+ * 每个线程写自己的对数-线性分桶直方图（类似HdrHistogram），记录时不加锁、不装箱、不分配对象；
+ * 取报告时把所有线程的直方图合并成一个快照。内存占用与样本数无关，
+ * 每个线程约35KB，分辨率为相对误差 < 1%，可以给出 P50 ~ P99.99 以及最大值。
+ */
+public class LatencyRecorder {
+
+    /**
+     * 延迟阶梯的持久化文件，每行一条JSON记录，由 HtmlReportGenerator 读取
+     */
+    public static final String LADDER_FILE = "latency_ladders.jsonl";
+    public static final double[] LADDER_PERCENTILES = {50, 90, 95, 99, 99.9, 99.99};
+
+    // 每个2的幂区间再线性细分为 2^SUB_BUCKET_BITS 个子桶，相对误差 <= 1/128
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+
+    // 可记录的最大值为 2^41-1 ns（约36分钟），更大的值计入最后一个桶
+    private static final int MAX_EXPONENT = 40;
+    private static final long MAX_TRACKABLE_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    // 计数数组末尾附带的两个槽位：总和与最大值
+    private static final int SUM_SLOT = BUCKET_COUNT;
+    private static final int MAX_SLOT = BUCKET_COUNT + 1;
+
+    private final List<AtomicLongArray> histograms = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<AtomicLongArray> localHistogram = ThreadLocal.withInitial(this::register);
+
+    private AtomicLongArray register() {
+        AtomicLongArray histogram = new AtomicLongArray(BUCKET_COUNT + 2);
+        histograms.add(histogram);
+        return histogram;
+    }
+
+    /**
+     * 记录一个延迟样本（纳秒）
+     *
+     * 每个直方图只有所属线程写入，所以用 lazySet 代替CAS即可保证合并时可见。
+     */
+    public void record(long latencyNanos) {
+        long value = latencyNanos < 0 ? 0 : Math.min(latencyNanos, MAX_TRACKABLE_VALUE);
+        AtomicLongArray histogram = localHistogram.get();
+
+        int index = bucketIndex(value);
+        histogram.lazySet(index, histogram.get(index) + 1);
+        histogram.lazySet(SUM_SLOT, histogram.get(SUM_SLOT) + value);
+        if (value > histogram.get(MAX_SLOT)) {
+            histogram.lazySet(MAX_SLOT, value);
+        }
+    }
+
+    /**
+     * 清空所有线程的直方图，应在没有线程记录时调用（如预热结束后）
+     */
+    public void reset() {
+        for (AtomicLongArray histogram : histograms) {
+            for (int i = 0; i < histogram.length(); i++) {
+                histogram.set(i, 0);
+            }
+        }
+    }
+
+    /**
+     * 合并所有线程的直方图，生成快照
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long totalCount = 0;
+        long sum = 0;
+        long max = 0;
+
+        for (AtomicLongArray histogram : histograms) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                long count = histogram.get(i);
+                counts[i] += count;
+                totalCount += count;
+            }
+            sum += histogram.get(SUM_SLOT);
+            max = Math.max(max, histogram.get(MAX_SLOT));
+        }
+        return new Snapshot(counts, totalCount, sum, max);
+    }
+
+    /**
+     * 打印延迟统计，格式与各测试类原有输出保持一致
+     */
+    public void printStats(String name) {
+        Snapshot snapshot = snapshot();
+        if (snapshot.getTotalCount() == 0) {
+            return;
+        }
+
+        double avg = snapshot.getMean();
+        System.out.printf("%n%s延迟统计:%n", name);
+        System.out.printf("  样本数: %,d%n", snapshot.getTotalCount());
+        System.out.printf("  平均: %.0f ns (%.2f ms)%n", avg, avg / 1_000_000.0);
+        printPercentile("P50", snapshot.getValueAtPercentile(50));
+        printPercentile("P90", snapshot.getValueAtPercentile(90));
+        printPercentile("P95", snapshot.getValueAtPercentile(95));
+        printPercentile("P99", snapshot.getValueAtPercentile(99));
+        printPercentile("P99.9", snapshot.getValueAtPercentile(99.9));
+        printPercentile("P99.99", snapshot.getValueAtPercentile(99.99));
+        printPercentile("Max", snapshot.getMax());
+    }
+
+    /**
+     * 把当前快照的分位数阶梯和所在JVM的信息追加到 {@link #LADDER_FILE}
+     *
+     * JMH在fork出的JVM中执行测试，这里记录的堆参数、核数就是测试实际运行时的值。
+     * 测试方法、模式和全部 @Param 取值来自 benchmarkParams，报告按它们区分不同的运行。
+     */
+    public void appendLadder(String benchmark, String series, BenchmarkParams benchmarkParams) {
+        Snapshot snapshot = snapshot();
+        if (snapshot.getTotalCount() == 0) {
+            return;
+        }
+
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        for (double percentile : LADDER_PERCENTILES) {
+            percentiles.put(String.valueOf(percentile), snapshot.getValueAtPercentile(percentile));
+        }
+        RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+        Map<String, Object> jvm = new LinkedHashMap<>();
+        jvm.put("version", System.getProperty("java.version"));
+        jvm.put("vm", runtime.getVmName() + " " + runtime.getVmVersion());
+        jvm.put("args", runtime.getInputArguments());
+        jvm.put("cores", Runtime.getRuntime().availableProcessors());
+        jvm.put("maxHeapBytes", Runtime.getRuntime().maxMemory());
+
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("timestamp", System.currentTimeMillis());
+        record.put("benchmark", benchmark);
+        record.put("series", series);
+        record.put("method", benchmarkParams.getBenchmark());
+        record.put("mode", benchmarkParams.getMode().shortLabel());
+        Map<String, String> params = new TreeMap<>();
+        for (String key : benchmarkParams.getParamsKeys()) {
+            params.put(key, benchmarkParams.getParam(key));
+        }
+        record.put("params", params);
+        record.put("count", snapshot.getTotalCount());
+        record.put("meanNs", snapshot.getMean());
+        record.put("percentilesNs", percentiles);
+        record.put("maxNs", snapshot.getMax());
+        record.put("jvm", jvm);
+
+        try {
+            String line = new ObjectMapper().writeValueAsString(record) + System.lineSeparator();
+            Files.write(Paths.get(LADDER_FILE), line.getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void printPercentile(String label, long value) {
+        System.out.printf("  %s: %,d ns (%.2f ms)%n", label, value, value / 1_000_000.0);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & SUB_BUCKET_MASK;
+        return ((shift + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    // 桶内最大值，报告分位数时取上界，保证不低估延迟
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long lowerBound = (long) (SUB_BUCKET_COUNT + (index & SUB_BUCKET_MASK)) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+    /**
+     * 合并后的直方图快照
+     */
+    public static class Snapshot {
+        private final long[] counts;
+        private final long totalCount;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long totalCount, long sum, long max) {
+            this.counts = counts;
+            this.totalCount = totalCount;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getTotalCount() { return totalCount; }
+        public long getMax() { return max; }
+
+        public double getMean() {
+            return totalCount == 0 ? 0 : (double) sum / totalCount;
+        }
+
+        /**
+         * 从 earlier 到本快照之间记录的样本；最大值取本快照的最大值，只作为分位数的上界
+         */
+        public Snapshot minus(Snapshot earlier) {
+            long[] delta = new long[counts.length];
+            for (int i = 0; i < counts.length; i++) {
+                delta[i] = counts[i] - earlier.counts[i];
+            }
+            return new Snapshot(delta, totalCount - earlier.totalCount, sum - earlier.sum, max);
+        }
+
+        public long getValueAtPercentile(double percentile) {
+            if (totalCount == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+            long cumulative = 0;
+            for (int i = 0; i < counts.length; i++) {
+                cumulative += counts[i];
+                if (cumulative >= rank) {
+                    return Math.min(bucketUpperBound(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
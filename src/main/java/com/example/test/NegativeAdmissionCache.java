@@ -0,0 +1,83 @@
+package com.example.test;
+
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 已被限流IP的负缓存："该IP在时刻t之前必然被拒绝"
+ *
+ * 直接映射表，每个槽一个long：高32位为打包IP，低32位为拒绝截止时刻（相对基准时间的毫秒数）。
+ * 查询一次volatile读加一次比较，不分配对象；冲突时后写入的IP覆盖前一个，被覆盖的IP退回完整检查，结果不变。
+ *
+ * 截止时刻取Sentinel时钟的下一个500ms边界。默认QPS统计窗口为1秒、2个500ms桶，
+ * 被拒绝后窗口内的通过数在当前桶结束前只增不减，所以边界前的请求一定仍被拒绝，
+ * 对滑动窗口的 FlowRule 是精确的；热点参数规则是持续补充的令牌桶，缓存期间令牌照常累积（不超过1秒的量），
+ * 边界后集中放行，每秒放行数不变，只是更集中在边界之后。
+ */
+public class NegativeAdmissionCache {
+
+    public static final long WINDOW_MILLIS = 500;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    // 时刻为相对基准的int毫秒数，单次运行不应超过24天
+    private final long baseMillis;
+
+    /**
+     * @param capacity 槽数，向上取2的幂
+     */
+    public NegativeAdmissionCache(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        slots = new AtomicLongArray(size);
+        mask = size - 1;
+        // 基准对齐到窗口边界，相对时间上的边界与Sentinel的绝对边界一致
+        long now = TimeUtil.currentTimeMillis();
+        baseMillis = now - now % WINDOW_MILLIS - WINDOW_MILLIS;
+    }
+
+    /**
+     * 当前时刻，调用方在做完整检查之前取得，传给 {@link #isBlocked} 和 {@link #markBlocked}
+     */
+    public int now() {
+        return (int) (TimeUtil.currentTimeMillis() - baseMillis);
+    }
+
+    /**
+     * IP在 now 时刻是否处于已知的拒绝期内
+     */
+    public boolean isBlocked(int ip, int now) {
+        long slot = slots.get(Ipv4.mix(ip) & mask);
+        return (int) (slot >>> 32) == ip && (int) slot > now;
+    }
+
+    /**
+     * 记录IP在 now 所在窗口内已被拒绝
+     *
+     * now 必须取自完整检查之前：检查期间跨过边界时，截止时刻落在检查时刻之前，缓存项立即失效，不会误拒。
+     */
+    public void markBlocked(int ip, int now) {
+        long until = (now / WINDOW_MILLIS + 1) * WINDOW_MILLIS;
+        slots.lazySet(Ipv4.mix(ip) & mask, (long) ip << 32 | until);
+    }
+
+    /**
+     * 规则变更后调用，该IP下次请求重新走完整检查
+     */
+    public void invalidate(int ip) {
+        int index = Ipv4.mix(ip) & mask;
+        if ((int) (slots.get(index) >>> 32) == ip) {
+            slots.set(index, 0);
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, 0);
+        }
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+}
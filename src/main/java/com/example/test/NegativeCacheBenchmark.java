@@ -0,0 +1,100 @@
+package com.example.test;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 攻击场景下负缓存的基准测试：少量IP以远超阈值的速率请求，几乎所有请求都被拒绝
+ *
+ * 对比各策略直接处理与加 NEG_CACHE: 前置层后的吞吐；辅助计数器 admitted 给出每秒放行数，
+ * 两种方式应基本一致（负缓存只省掉注定被拒绝的完整检查）。main 中带 GCProfiler，
+ * gc.alloc.rate.norm 可以看到拒绝路径上 BlockException 的分配是否消失。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Xms2g", "-XX:+UseG1GC"})
+@Threads(8)
+public class NegativeCacheBenchmark {
+
+    @Param({"INDEPENDENT", "HOTSPOT", "CIDR", "LOCAL_BUCKET"})
+    private String strategyType;
+
+    @Param({"false", "true"})
+    private boolean negativeCache;
+
+    // 攻击者IP数
+    @Param({"16"})
+    private int ipCount;
+
+    @Param({"10"})
+    private int defaultQps;
+
+    private List<String> ipAddresses;
+    private ComparisonPerformanceTest.RateLimitStrategy strategy;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RequestCounters {
+        public long admitted;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            admitted = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ipAddresses = new ArrayList<>(ipCount);
+        for (int i = 0; i < ipCount; i++) {
+            ipAddresses.add(String.format("203.0.113.%d", i % 256));
+        }
+        strategy = ComparisonPerformanceTest.createStrategy(
+                negativeCache ? NegativeCacheStrategy.PREFIX + strategyType : strategyType);
+        strategy.initRules(ipAddresses, defaultQps);
+    }
+
+    @Benchmark
+    public boolean attack(Cursor cursor, RequestCounters counters) {
+        int index = cursor.next;
+        cursor.next = index + 1 == ipCount ? 0 : index + 1;
+        boolean allowed = strategy.allowRequest(ipAddresses.get(index));
+        if (allowed) {
+            counters.admitted++;
+        }
+        return allowed;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        strategy.clearRules();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(NegativeCacheBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .shouldDoGC(true)
+                .result("negative_cache_results.json")
+                .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.JSON)
+                .build();
+
+        new Runner(options).run();
+    }
+}
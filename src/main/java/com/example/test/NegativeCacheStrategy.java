@@ -0,0 +1,74 @@
+package com.example.test;
+
+import java.util.List;
+
+/**
+ * 负缓存前置层：已知在当前窗口内会被拒绝的IP直接拒绝，不进入被包装策略（Sentinel slot chain）
+ *
+ * 被包装策略拒绝一次后记录截止时刻，之后同一窗口内的请求只需解析IP和查一次表，
+ * 不再走 SphU.entry，也不再分配和抛出 BlockException。放行的请求照常经过被包装策略。
+ * 缓存语义见 {@link NegativeAdmissionCache}。缓存按打包的IPv4地址索引，
+ * IPv6或无法解析的地址不经过缓存，直接交给被包装策略。
+ */
+public class NegativeCacheStrategy implements ComparisonPerformanceTest.RateLimitStrategy {
+
+    public static final String PREFIX = "NEG_CACHE:";
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final ComparisonPerformanceTest.RateLimitStrategy delegate;
+    private final NegativeAdmissionCache cache;
+
+    public NegativeCacheStrategy(ComparisonPerformanceTest.RateLimitStrategy delegate) {
+        this(delegate, DEFAULT_CAPACITY);
+    }
+
+    public NegativeCacheStrategy(ComparisonPerformanceTest.RateLimitStrategy delegate, int capacity) {
+        this.delegate = delegate;
+        this.cache = new NegativeAdmissionCache(capacity);
+    }
+
+    public void initRules(List<String> ips, int defaultQps) {
+        cache.clear();
+        delegate.initRules(ips, defaultQps);
+    }
+
+    public boolean allowRequest(String ip) {
+        int packed;
+        try {
+            packed = Ipv4.parse(ip);
+        } catch (IllegalArgumentException e) {
+            return delegate.allowRequest(ip);
+        }
+        int now = cache.now();
+        if (cache.isBlocked(packed, now)) {
+            return false;
+        }
+        if (delegate.allowRequest(ip)) {
+            return true;
+        }
+        cache.markBlocked(packed, now);
+        return false;
+    }
+
+    public void updateRule(String ip, int newQps) {
+        delegate.updateRule(ip, newQps);
+        try {
+            cache.invalidate(Ipv4.parse(ip));
+        } catch (IllegalArgumentException e) {
+            // 非IPv4地址从未进入缓存
+        }
+    }
+
+    public int getRuleCount() {
+        return delegate.getRuleCount();
+    }
+
+    public void clearRules() {
+        delegate.clearRules();
+        cache.clear();
+    }
+
+    public ComparisonPerformanceTest.RateLimitStrategy getDelegate() {
+        return delegate;
+    }
+}
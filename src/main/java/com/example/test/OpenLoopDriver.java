@@ -0,0 +1,218 @@
+package com.example.test;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 开环压测驱动：按预先生成的到达时间表发请求，延迟从计划开始时间算起
+ *
+ * JMH的 @Benchmark 都是闭环的：线程处理完上一个请求才发下一个，系统变慢时发送速率随之下降，
+ * 排队时间不会出现在延迟里（coordinated omission）。这里到达时间与处理速度无关，
+ * 工作线程来不及处理时请求在时间表上排队，这段等待计入延迟。
+ *
+ * 对每个策略依次施加一组目标速率（泊松到达），输出 延迟-吞吐 曲线到CSV。
+ * 参数: [策略,逗号分隔] [速率,逗号分隔] [每档秒数] [工作线程数] [业务负载] [业务纳秒] [流量分布]
+ */
+public class OpenLoopDriver {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    // 每档前1秒的样本不计入
+    private static final long WARMUP_NANOS = NANOS_PER_SECOND;
+
+    private final int ipCount;
+    private final int defaultQps;
+    private final int workerThreads;
+    private final Workload workload;
+    private final long businessNanos;
+    private final List<String> ipAddresses;
+    private final TrafficDistribution traffic;
+
+    public OpenLoopDriver(int ipCount, int defaultQps, int workerThreads, Workload workload, long businessNanos) {
+        this(ipCount, defaultQps, workerThreads, workload, businessNanos, "UNIFORM");
+    }
+
+    public OpenLoopDriver(int ipCount, int defaultQps, int workerThreads, Workload workload, long businessNanos,
+                          String trafficDistribution) {
+        this.ipCount = ipCount;
+        this.defaultQps = defaultQps;
+        this.workerThreads = workerThreads;
+        this.workload = workload;
+        this.businessNanos = businessNanos;
+        this.traffic = TrafficDistribution.parse(trafficDistribution, ipCount);
+
+        ipAddresses = new ArrayList<>(ipCount);
+        for (int i = 0; i < ipCount; i++) {
+            ipAddresses.add(String.format("192.168.%d.%d", (i / 256) % 256, i % 256));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String[] strategies = (args.length > 0 ? args[0] : "INDEPENDENT,HOTSPOT,CIDR,LOCAL_BUCKET").split(",");
+        int[] rates = Arrays.stream((args.length > 1 ? args[1] : "1000,2000,5000,10000,20000,50000").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        int durationSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int workerThreads = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+        Workload workload = args.length > 4 ? Workload.valueOf(args[4]) : Workload.SPIN;
+        long businessNanos = args.length > 5 ? Long.parseLong(args[5]) : 100_000;
+        String trafficDistribution = args.length > 6 ? args[6] : "UNIFORM";
+
+        OpenLoopDriver driver = new OpenLoopDriver(1000, 20, workerThreads, workload, businessNanos, trafficDistribution);
+        driver.sweep(strategies, rates, durationSeconds, "openloop_results.csv");
+    }
+
+    /**
+     * 对每个策略按速率从低到高各跑一档，结果逐行写入CSV
+     */
+    public void sweep(String[] strategies, int[] rates, int durationSeconds, String csvFile)
+            throws IOException, InterruptedException {
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(Paths.get(csvFile), StandardCharsets.UTF_8))) {
+            csv.println("strategy,offered_rps,achieved_rps,admitted,blocked,mean_ns,p50_ns,p90_ns,p99_ns,p999_ns,max_ns");
+
+            for (String strategyType : strategies) {
+                ComparisonPerformanceTest.RateLimitStrategy strategy = ComparisonPerformanceTest.createStrategy(strategyType);
+                strategy.initRules(ipAddresses, defaultQps);
+                try {
+                    for (int rate : rates) {
+                        StepResult result = runStep(strategy, rate, durationSeconds);
+                        result.print(strategyType);
+                        result.writeCsv(csv, strategyType);
+                        csv.flush();
+                    }
+                } finally {
+                    strategy.clearRules();
+                }
+            }
+        }
+        System.out.println("\n结果已保存到: " + csvFile);
+    }
+
+    /**
+     * 以 rate 的平均速率跑 durationSeconds 秒
+     */
+    public StepResult runStep(ComparisonPerformanceTest.RateLimitStrategy strategy, int rate, int durationSeconds)
+            throws InterruptedException {
+        Random random = new Random(rate);
+        long[] schedule = poissonSchedule(rate, durationSeconds * NANOS_PER_SECOND, random);
+        String[] ips = new String[schedule.length];
+        // 按计划到达时间采样，BURSTY的开关阶段跟着时间表走而不是生成时刻
+        for (int i = 0; i < ips.length; i++) {
+            ips[i] = ipAddresses.get(traffic.next(schedule[i], random.nextLong()));
+        }
+
+        LatencyRecorder latencies = new LatencyRecorder();
+        LongAdder admitted = new LongAdder();
+        LongAdder blocked = new LongAdder();
+        AtomicInteger next = new AtomicInteger();
+        // 留出线程启动时间
+        long baseNanos = System.nanoTime() + 100_000_000L;
+
+        Runnable worker = () -> {
+            int i;
+            while ((i = next.getAndIncrement()) < schedule.length) {
+                long intended = baseNanos + schedule[i];
+                long wait;
+                while ((wait = intended - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                boolean allowed = strategy.allowRequest(ips[i]);
+                if (allowed) {
+                    workload.run(businessNanos);
+                }
+
+                if (schedule[i] >= WARMUP_NANOS) {
+                    latencies.record(System.nanoTime() - intended);
+                    if (allowed) {
+                        admitted.increment();
+                    } else {
+                        blocked.increment();
+                    }
+                }
+            }
+        };
+
+        List<Thread> workers = new ArrayList<>(workerThreads);
+        for (int t = 0; t < workerThreads; t++) {
+            Thread thread = new Thread(worker, "open-loop-" + t);
+            workers.add(thread);
+            thread.start();
+        }
+        for (Thread thread : workers) {
+            thread.join();
+        }
+
+        double measuredSeconds = (System.nanoTime() - baseNanos - WARMUP_NANOS) / (double) NANOS_PER_SECOND;
+        return new StepResult(rate, admitted.sum(), blocked.sum(), measuredSeconds, latencies.snapshot());
+    }
+
+    /**
+     * 泊松到达时间表：相邻请求间隔服从均值 1/rate 的指数分布，返回相对开始时间的纳秒偏移
+     */
+    static long[] poissonSchedule(int rate, long durationNanos, Random random) {
+        double meanGap = (double) NANOS_PER_SECOND / rate;
+        long[] schedule = new long[(int) Math.min(Integer.MAX_VALUE - 8, (long) rate * durationNanos / NANOS_PER_SECOND * 2)];
+        double time = 0;
+        int count = 0;
+        while (count < schedule.length) {
+            time += -Math.log(1 - random.nextDouble()) * meanGap;
+            if (time >= durationNanos) {
+                break;
+            }
+            schedule[count++] = (long) time;
+        }
+        return Arrays.copyOf(schedule, count);
+    }
+
+    /**
+     * 一档速率的结果
+     */
+    public static class StepResult {
+        private final int offeredRate;
+        private final long admitted;
+        private final long blocked;
+        private final double seconds;
+        private final LatencyRecorder.Snapshot latency;
+
+        StepResult(int offeredRate, long admitted, long blocked, double seconds, LatencyRecorder.Snapshot latency) {
+            this.offeredRate = offeredRate;
+            this.admitted = admitted;
+            this.blocked = blocked;
+            this.seconds = seconds;
+            this.latency = latency;
+        }
+
+        public double getAchievedRate() {
+            return (admitted + blocked) / seconds;
+        }
+
+        public LatencyRecorder.Snapshot getLatency() {
+            return latency;
+        }
+
+        void print(String strategyType) {
+            System.out.printf("%-14s 目标 %,7d 请求/秒 | 实际 %,9.0f 请求/秒 | 通过 %,9d 限流 %,9d | P50 %,10.1f us  P99 %,12.1f us  Max %,12.1f us%n",
+                    strategyType, offeredRate, getAchievedRate(), admitted, blocked,
+                    latency.getValueAtPercentile(50) / 1000.0,
+                    latency.getValueAtPercentile(99) / 1000.0,
+                    latency.getMax() / 1000.0);
+        }
+
+        void writeCsv(PrintWriter csv, String strategyType) {
+            csv.printf(Locale.ROOT, "%s,%d,%.1f,%d,%d,%.0f,%d,%d,%d,%d,%d%n",
+                    strategyType, offeredRate, getAchievedRate(), admitted, blocked, latency.getMean(),
+                    latency.getValueAtPercentile(50), latency.getValueAtPercentile(90),
+                    latency.getValueAtPercentile(99), latency.getValueAtPercentile(99.9), latency.getMax());
+        }
+    }
+}
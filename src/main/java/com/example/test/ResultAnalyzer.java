@@ -0,0 +1,511 @@
+package com.example.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * JMH JSON结果的基线存储与回归判定
+ *
+ * baseline 把结果文件原样复制到基线目录；compare 按 (基准方法, 模式, 参数) 把新结果与同名基线文件逐项配对：
+ * 主指标用每次迭代的得分（rawData，所有fork合并）做 Welch t 检验，P99 也按迭代做同样的检验：
+ * SampleTime 模式从每次迭代的直方图（rawDataHistogram）计算，Throughput/AverageTime 模式取测试
+ * 导出的辅助指标 p99Ns。差值的95%置信区间不含0、且变化超过 MIN_CHANGE 时判为显著；
+ * 吞吐下降或耗时/P99上升即为回归。
+ *
+ * 测试导出的其它辅助指标中，名字以单位结尾（Ns、Ms、Mb，如 firstByteMs、peakHeapMb）的视为代价，
+ * 同样按迭代检验，上升即为回归；其余辅助指标（计数等）方向不明，不参与判定。
+ *
+ * 应当有 P99 的结果（SampleTime 模式，或基线中有 P99 的项）缺少 P99 时也计为失败，
+ * 避免导出被去掉后回归判定悄悄失效；是否应当导出由基线结果本身决定，新测试导出 p99Ns 后保存基线即纳入判定。只有1次迭代的结果没有方差，不做判定。
+ * 参数: baseline|compare [结果文件...] [--dir 基线目录]，有回归时退出码为1
+ */
+public class ResultAnalyzer {
+
+    public static final String DEFAULT_BASELINE_DIR = "benchmark-baselines";
+
+    private static final double CONFIDENCE = 0.95;
+    private static final double MIN_CHANGE = 0.05;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // Throughput/AverageTime 模式下由测试以 @AuxCounters 导出的每次迭代P99（纳秒）
+    static final String P99_METRIC = "p99Ns";
+    // 越低越好的辅助指标名后缀 -> 单位
+    private static final Map<String, String> COST_SUFFIXES = new LinkedHashMap<>();
+
+    static {
+        COST_SUFFIXES.put("Ns", "ns");
+        COST_SUFFIXES.put("Ms", "ms");
+        COST_SUFFIXES.put("Mb", "MB");
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("用法: ResultAnalyzer baseline|compare [结果文件...] [--dir 基线目录]");
+            return;
+        }
+        String dir = DEFAULT_BASELINE_DIR;
+        List<String> files = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if ("--dir".equals(args[i]) && i + 1 < args.length) {
+                dir = args[++i];
+            } else {
+                files.add(args[i]);
+            }
+        }
+
+        if ("baseline".equals(args[0])) {
+            saveBaselines(files, Paths.get(dir));
+        } else {
+            int regressions = compareWithBaselines(files, Paths.get(dir));
+            System.exit(regressions > 0 ? 1 : 0);
+        }
+    }
+
+    /**
+     * 把结果文件复制到基线目录，同名文件被覆盖
+     */
+    public static void saveBaselines(List<String> resultFiles, Path baselineDir) throws IOException {
+        Files.createDirectories(baselineDir);
+        for (String file : resultFiles) {
+            Path source = Paths.get(file);
+            if (!Files.exists(source)) {
+                System.out.println("跳过不存在的结果文件: " + file);
+                continue;
+            }
+            Path target = baselineDir.resolve(source.getFileName());
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("已保存基线: " + target);
+        }
+    }
+
+    /**
+     * 逐个文件与基线比较，打印对比表
+     *
+     * @return 显著回归的指标数
+     */
+    public static int compareWithBaselines(List<String> resultFiles, Path baselineDir) throws IOException {
+        int regressions = 0;
+        for (String file : resultFiles) {
+            Path current = Paths.get(file);
+            Path baseline = baselineDir.resolve(current.getFileName());
+            if (!Files.exists(current)) {
+                System.out.println("跳过不存在的结果文件: " + file);
+                continue;
+            }
+            if (!Files.exists(baseline)) {
+                System.out.println("没有基线, 跳过: " + baseline);
+                continue;
+            }
+            regressions += compare(baseline, current);
+        }
+
+        System.out.println();
+        System.out.println(regressions == 0 ? "未发现显著回归" : "发现 " + regressions + " 项显著回归");
+        return regressions;
+    }
+
+    static int compare(Path baselineFile, Path currentFile) throws IOException {
+        Map<String, JsonNode> baseline = loadRuns(baselineFile);
+        Map<String, JsonNode> current = loadRuns(currentFile);
+
+        System.out.println("\n" + "=".repeat(100));
+        System.out.println("对比: " + currentFile + "  基线: " + baselineFile);
+        System.out.println("=".repeat(100));
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode base = baseline.get(entry.getKey());
+            if (base == null) {
+                System.out.println("新增(无基线): " + entry.getKey());
+                continue;
+            }
+            JsonNode run = entry.getValue();
+            String mode = run.path("mode").asText();
+            String unit = run.path("primaryMetric").path("scoreUnit").asText();
+            boolean higherIsBetter = "thrpt".equals(mode);
+
+            Comparison score = Comparison.of(rawScores(base), rawScores(run), higherIsBetter);
+            score.print(entry.getKey(), "得分", unit);
+            if (score.isRegression()) {
+                regressions++;
+            }
+
+            double[] baseP99 = iterationP99(base);
+            double[] currentP99 = iterationP99(run);
+            if (currentP99.length == 0) {
+                if (expectsP99(base)) {
+                    System.out.printf("%-6s %s%n       结果中没有P99%n", "缺少P99", entry.getKey());
+                    regressions++;
+                }
+            } else if (baseP99.length > 0) {
+                String p99Unit = "sample".equals(mode) ? unit : "ns";
+                Comparison p99 = Comparison.of(baseP99, currentP99, false);
+                p99.print(entry.getKey(), "P99", p99Unit);
+                if (p99.isRegression()) {
+                    regressions++;
+                }
+            }
+
+            Iterator<String> metrics = run.path("secondaryMetrics").fieldNames();
+            while (metrics.hasNext()) {
+                String metric = metrics.next();
+                String costUnit = costUnit(metric);
+                double[] baseValues = secondaryScores(base, metric);
+                if (metric.equals(P99_METRIC) || costUnit == null || baseValues.length == 0) {
+                    continue;
+                }
+                Comparison cost = Comparison.of(baseValues, secondaryScores(run, metric), false);
+                cost.print(entry.getKey(), metric, costUnit);
+                if (cost.isRegression()) {
+                    regressions++;
+                }
+            }
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.println("缺失(仅基线中有): " + key);
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * 以 "基准方法 [模式] {参数}" 为键索引结果文件中的每一项
+     */
+    static Map<String, JsonNode> loadRuns(Path file) throws IOException {
+        Map<String, JsonNode> runs = new LinkedHashMap<>();
+        for (JsonNode run : MAPPER.readTree(file.toFile())) {
+            Map<String, String> params = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = run.path("params").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                params.put(field.getKey(), field.getValue().asText());
+            }
+            String benchmark = run.path("benchmark").asText();
+            String shortName = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+            runs.put(shortName + " [" + run.path("mode").asText() + "] " + params, run);
+        }
+        return runs;
+    }
+
+    /**
+     * 所有fork的每次迭代得分；SampleTime 模式没有 rawData，取每次迭代直方图的均值
+     */
+    static double[] rawScores(JsonNode run) {
+        List<Double> scores = new ArrayList<>();
+        for (JsonNode fork : run.path("primaryMetric").path("rawData")) {
+            for (JsonNode iteration : fork) {
+                scores.add(iteration.asDouble());
+            }
+        }
+        if (scores.isEmpty()) {
+            for (JsonNode fork : run.path("primaryMetric").path("rawDataHistogram")) {
+                for (JsonNode iteration : fork) {
+                    double sum = 0;
+                    long total = 0;
+                    for (JsonNode bucket : iteration) {
+                        long count = bucket.get(1).asLong();
+                        sum += bucket.get(0).asDouble() * count;
+                        total += count;
+                    }
+                    if (total > 0) {
+                        scores.add(sum / total);
+                    }
+                }
+            }
+        }
+        return toArray(scores);
+    }
+
+    /**
+     * 每次迭代的P99：SampleTime 模式由直方图计算，其余模式取辅助指标 p99Ns，没有时返回空数组
+     */
+    static double[] iterationP99(JsonNode run) {
+        if ("sample".equals(run.path("mode").asText())) {
+            return iterationPercentiles(run, 0.99);
+        }
+        return secondaryScores(run, P99_METRIC);
+    }
+
+    /**
+     * 辅助指标在所有fork的每次迭代的值，没有时返回空数组
+     */
+    static double[] secondaryScores(JsonNode run, String metric) {
+        List<Double> values = new ArrayList<>();
+        for (JsonNode fork : run.path("secondaryMetrics").path(metric).path("rawData")) {
+            for (JsonNode iteration : fork) {
+                values.add(iteration.asDouble());
+            }
+        }
+        return toArray(values);
+    }
+
+    /**
+     * 代价类辅助指标的单位，不是代价类指标时返回null
+     */
+    static String costUnit(String metric) {
+        for (Map.Entry<String, String> suffix : COST_SUFFIXES.entrySet()) {
+            if (metric.endsWith(suffix.getKey())) {
+                return suffix.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 基线中的一项是否带 P99：SampleTime 模式总有直方图，其余模式看基线是否导出了 p99Ns
+     */
+    static boolean expectsP99(JsonNode baselineRun) {
+        return "sample".equals(baselineRun.path("mode").asText())
+                || !baselineRun.path("secondaryMetrics").path(P99_METRIC).isMissingNode();
+    }
+
+    /**
+     * SampleTime 模式下每次迭代的百分位数，由 rawDataHistogram 的 [值, 次数] 列表计算
+     */
+    static double[] iterationPercentiles(JsonNode run, double quantile) {
+        List<Double> values = new ArrayList<>();
+        for (JsonNode fork : run.path("primaryMetric").path("rawDataHistogram")) {
+            for (JsonNode iteration : fork) {
+                TreeMap<Double, Long> histogram = new TreeMap<>();
+                long total = 0;
+                for (JsonNode bucket : iteration) {
+                    long count = bucket.get(1).asLong();
+                    histogram.merge(bucket.get(0).asDouble(), count, Long::sum);
+                    total += count;
+                }
+                if (total == 0) {
+                    continue;
+                }
+                long rank = (long) Math.ceil(quantile * total);
+                long seen = 0;
+                for (Map.Entry<Double, Long> bucket : histogram.entrySet()) {
+                    seen += bucket.getValue();
+                    if (seen >= rank) {
+                        values.add(bucket.getKey());
+                        break;
+                    }
+                }
+            }
+        }
+        return toArray(values);
+    }
+
+    private static double[] toArray(List<Double> values) {
+        double[] result = new double[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * 一项指标的 Welch t 检验结果
+     */
+    static final class Comparison {
+        final double baselineMean;
+        final double currentMean;
+        final double ciLow;   // 差值(current - baseline)的置信区间
+        final double ciHigh;
+        final double pValue;
+        final boolean higherIsBetter;
+        final boolean enoughData;
+
+        private Comparison(double baselineMean, double currentMean, double ciLow, double ciHigh,
+                           double pValue, boolean higherIsBetter, boolean enoughData) {
+            this.baselineMean = baselineMean;
+            this.currentMean = currentMean;
+            this.ciLow = ciLow;
+            this.ciHigh = ciHigh;
+            this.pValue = pValue;
+            this.higherIsBetter = higherIsBetter;
+            this.enoughData = enoughData;
+        }
+
+        static Comparison of(double[] baseline, double[] current, boolean higherIsBetter) {
+            double baselineMean = mean(baseline);
+            double currentMean = mean(current);
+            if (baseline.length < 2 || current.length < 2) {
+                return new Comparison(baselineMean, currentMean, Double.NaN, Double.NaN, Double.NaN,
+                        higherIsBetter, false);
+            }
+
+            double baselineVar = variance(baseline, baselineMean) / baseline.length;
+            double currentVar = variance(current, currentMean) / current.length;
+            double se = Math.sqrt(baselineVar + currentVar);
+            double diff = currentMean - baselineMean;
+            if (se == 0) {
+                double p = diff == 0 ? 1 : 0;
+                return new Comparison(baselineMean, currentMean, diff, diff, p, higherIsBetter, true);
+            }
+
+            // Welch–Satterthwaite 自由度
+            double df = (baselineVar + currentVar) * (baselineVar + currentVar)
+                    / (baselineVar * baselineVar / (baseline.length - 1) + currentVar * currentVar / (current.length - 1));
+            double t = diff / se;
+            double pValue = 2 * (1 - StudentT.cdf(Math.abs(t), df));
+            double margin = StudentT.quantile(1 - (1 - CONFIDENCE) / 2, df) * se;
+            return new Comparison(baselineMean, currentMean, diff - margin, diff + margin, pValue,
+                    higherIsBetter, true);
+        }
+
+        double getRelativeChange() {
+            return baselineMean == 0 ? 0 : (currentMean - baselineMean) / baselineMean;
+        }
+
+        boolean isSignificant() {
+            return enoughData && (ciLow > 0 || ciHigh < 0) && Math.abs(getRelativeChange()) >= MIN_CHANGE;
+        }
+
+        boolean isRegression() {
+            return isSignificant() && (higherIsBetter ? currentMean < baselineMean : currentMean > baselineMean);
+        }
+
+        void print(String key, String metric, String unit) {
+            String verdict;
+            if (!enoughData) {
+                verdict = "样本不足";
+            } else if (isRegression()) {
+                verdict = "回归";
+            } else if (isSignificant()) {
+                verdict = "改善";
+            } else {
+                verdict = "无显著变化";
+            }
+            System.out.printf("%-6s %s%n", verdict, key);
+            System.out.printf("       %s: 基线 %s -> 当前 %s %s (%+.1f%%), 差值95%%CI [%s, %s], p=%.4f%n",
+                    metric, format(baselineMean), format(currentMean), unit, getRelativeChange() * 100,
+                    format(ciLow), format(ciHigh), pValue);
+        }
+
+        // 保留4位有效数字，ops/ns 之类的小数值也能看出差别
+        private static String format(double value) {
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                return String.valueOf(value);
+            }
+            return new BigDecimal(value).round(new MathContext(4)).stripTrailingZeros().toPlainString();
+        }
+
+        private static double mean(double[] values) {
+            double sum = 0;
+            for (double value : values) {
+                sum += value;
+            }
+            return values.length == 0 ? Double.NaN : sum / values.length;
+        }
+
+        private static double variance(double[] values, double mean) {
+            double sum = 0;
+            for (double value : values) {
+                sum += (value - mean) * (value - mean);
+            }
+            return sum / (values.length - 1);
+        }
+    }
+
+    /**
+     * Student t 分布的累积分布函数与分位数（正则化不完全Beta函数，连分式展开）
+     */
+    static final class StudentT {
+
+        private StudentT() {
+        }
+
+        static double cdf(double t, double df) {
+            double x = df / (df + t * t);
+            double tail = 0.5 * regularizedBeta(x, df / 2, 0.5);
+            return t >= 0 ? 1 - tail : tail;
+        }
+
+        /**
+         * 二分求分位数，p 在 (0.5, 1) 之间
+         */
+        static double quantile(double p, double df) {
+            double low = 0;
+            double high = 1;
+            while (cdf(high, df) < p) {
+                high *= 2;
+            }
+            for (int i = 0; i < 100; i++) {
+                double mid = (low + high) / 2;
+                if (cdf(mid, df) < p) {
+                    low = mid;
+                } else {
+                    high = mid;
+                }
+            }
+            return (low + high) / 2;
+        }
+
+        private static double regularizedBeta(double x, double a, double b) {
+            if (x <= 0) {
+                return 0;
+            }
+            if (x >= 1) {
+                return 1;
+            }
+            double front = Math.exp(logGamma(a + b) - logGamma(a) - logGamma(b)
+                    + a * Math.log(x) + b * Math.log(1 - x));
+            if (x < (a + 1) / (a + b + 2)) {
+                return front * betaContinuedFraction(x, a, b) / a;
+            }
+            return 1 - front * betaContinuedFraction(1 - x, b, a) / b;
+        }
+
+        private static double betaContinuedFraction(double x, double a, double b) {
+            final double tiny = 1e-300;
+            double c = 1;
+            double d = 1 - (a + b) * x / (a + 1);
+            d = Math.abs(d) < tiny ? 1 / tiny : 1 / d;
+            double h = d;
+            for (int m = 1; m <= 300; m++) {
+                int m2 = 2 * m;
+                double numerator = m * (b - m) * x / ((a + m2 - 1) * (a + m2));
+                d = 1 + numerator * d;
+                d = Math.abs(d) < tiny ? 1 / tiny : 1 / d;
+                c = 1 + numerator / c;
+                c = Math.abs(c) < tiny ? tiny : c;
+                h *= d * c;
+
+                numerator = -(a + m) * (a + b + m) * x / ((a + m2) * (a + m2 + 1));
+                d = 1 + numerator * d;
+                d = Math.abs(d) < tiny ? 1 / tiny : 1 / d;
+                c = 1 + numerator / c;
+                c = Math.abs(c) < tiny ? tiny : c;
+                double delta = d * c;
+                h *= delta;
+                if (Math.abs(delta - 1) < 1e-12) {
+                    break;
+                }
+            }
+            return h;
+        }
+
+        // Lanczos 近似
+        private static double logGamma(double x) {
+            double[] coefficients = {76.18009172947146, -86.50532032941677, 24.01409824083091,
+                    -1.231739572450155, 0.1208650973866179e-2, -0.5395239384953e-5};
+            double y = x;
+            double tmp = x + 5.5;
+            tmp -= (x + 0.5) * Math.log(tmp);
+            double series = 1.000000000190015;
+            for (double coefficient : coefficients) {
+                series += coefficient / ++y;
+            }
+            return -tmp + Math.log(2.5066282746310005 * series / x);
+        }
+    }
+}
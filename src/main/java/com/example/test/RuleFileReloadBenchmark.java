@@ -0,0 +1,223 @@
+package com.example.test;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRuleManager;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * 文件规则源的基准测试：放行流量持续进行时改写规则文件，测量变更生效的延迟和放行路径的延迟尖刺
+ *
+ * rewriteUnderLoad 组中1个线程每次把 changedPercent% 的IP改为新阈值，先写临时文件再原子移动到规则文件，
+ * 计时从移动开始到 FileRuleSource 推送完毕，即监听、解析、比较和推送的全过程（含 settle 等待）；
+ * 同组3个线程走放行路径，与只放行的 allowOnly 对比得到改写期间的延迟尖刺。
+ *
+ * FLOW 为每IP一条普通流控规则（DeltaFlowRuleManager），PARAM_ITEMS 为一条热点规则的例外项（HotspotExceptionStore）。
+ * 阈值都取得很高，放行路径只有检查开销。
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Xms4g", "-XX:+UseG1GC"})
+public class RuleFileReloadBenchmark {
+
+    private static final String PARAM_RESOURCE = "rule_file_param_resource";
+    // Sentinel最多为6000个资源创建slot chain，放行流量只落在前面的资源上
+    private static final int HOT_IP_COUNT = 5000;
+    private static final int BASE_QPS = 100_000;
+
+    @Param({"100000"})
+    private int ruleCount;
+
+    @Param({"FLOW", "PARAM_ITEMS"})
+    private String ruleType;
+
+    @Param({"JSON", "COMPACT"})
+    private String format;
+
+    // 每次改写时阈值变化的IP比例
+    @Param({"1", "100"})
+    private int changedPercent;
+
+    @Param({"10"})
+    private long settleMillis;
+
+    private Path directory;
+    private Path ruleFile;
+    private String[] ipAddresses;
+    private String[] flowResources;
+    private HotspotExceptionStore exceptionStore;
+    private FileRuleSource source;
+    private TrafficDistribution traffic;
+    private boolean flow;
+    private int rewrites;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        ipAddresses = new String[ruleCount];
+        flowResources = new String[ruleCount];
+        for (int i = 0; i < ruleCount; i++) {
+            ipAddresses[i] = String.format("10.%d.%d.%d", (i / 65536) % 256, (i / 256) % 256, i % 256);
+            flowResources[i] = "file_ip_" + ipAddresses[i];
+        }
+        traffic = TrafficDistribution.parse("UNIFORM", Math.min(ruleCount, HOT_IP_COUNT));
+        flow = "FLOW".equals(ruleType);
+
+        directory = Files.createTempDirectory("rule-file-bench");
+        ruleFile = directory.resolve(flow ? "flow-rules" : "param-rules");
+        writeRules(ruleFile, 0);
+
+        FileRuleSource.RuleSink sink;
+        if (flow) {
+            DeltaFlowRuleManager.clearRules();
+            sink = FileRuleSource.flowRules(ip -> "file_ip_" + ip);
+        } else {
+            exceptionStore = new HotspotExceptionStore(PARAM_RESOURCE, BASE_QPS);
+            ParamFlowRuleManager.loadRules(Collections.singletonList(exceptionStore.buildRule()));
+            exceptionStore.attach();
+            sink = FileRuleSource.hotspotExceptions(exceptionStore);
+        }
+        source = new FileRuleSource(ruleFile, sink, settleMillis);
+        source.start();
+        System.out.printf("%n规则文件初始加载: %s%n", source.getLastReload());
+    }
+
+    /**
+     * 第 version 版规则文件：前 changedPercent% 的IP阈值随版本交替，其余不变
+     */
+    private void writeRules(Path target, int version) throws IOException {
+        int changed = ruleCount * changedPercent / 100;
+        boolean json = "JSON".equals(format);
+        try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            if (json) {
+                writer.write("[\n");
+            }
+            for (int i = 0; i < ruleCount; i++) {
+                // 热点例外项阈值不能等于默认阈值，否则等同于删除
+                int qps = BASE_QPS + 1 + (i < changed ? version & 1 : 0);
+                if (json) {
+                    writer.write("{\"ip\":\"" + ipAddresses[i] + "\",\"qps\":" + qps + "}");
+                    writer.write(i + 1 < ruleCount ? ",\n" : "\n");
+                } else {
+                    writer.write(ipAddresses[i] + " " + qps + "\n");
+                }
+            }
+            if (json) {
+                writer.write("]\n");
+            }
+        }
+    }
+
+    /**
+     * 改写线程的状态：每次调用前把下一版规则写到临时文件，不计入测量
+     */
+    @State(Scope.Thread)
+    public static class Staged {
+        Path file;
+
+        @Setup(Level.Invocation)
+        public void stage(RuleFileReloadBenchmark benchmark) throws IOException {
+            file = benchmark.directory.resolve("rules.tmp");
+            benchmark.writeRules(file, ++benchmark.rewrites);
+        }
+    }
+
+    @Benchmark
+    @Group("rewriteUnderLoad")
+    @GroupThreads(1)
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 2, time = 5)
+    @Measurement(iterations = 3, time = 10)
+    public long rewrite(Staged staged) throws IOException {
+        long before = source.getReloadCount();
+        Files.move(staged.file, ruleFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        while (source.getReloadCount() == before) {
+            LockSupport.parkNanos(50_000);
+        }
+        return source.getReloadCount();
+    }
+
+    @Benchmark
+    @Group("rewriteUnderLoad")
+    @GroupThreads(3)
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 2, time = 5)
+    @Measurement(iterations = 3, time = 10)
+    public boolean allow() {
+        return allowRequest();
+    }
+
+    @Benchmark
+    @Threads(3)
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 2, time = 5)
+    @Measurement(iterations = 3, time = 10)
+    public boolean allowOnly() {
+        return allowRequest();
+    }
+
+    private boolean allowRequest() {
+        int index = traffic.next();
+        String ip = ipAddresses[index];
+        Entry entry = null;
+        try {
+            if (flow) {
+                entry = SphU.entry(flowResources[index], EntryType.IN);
+            } else {
+                entry = SphU.entry(PARAM_RESOURCE, EntryType.IN, 1, ip);
+            }
+            return true;
+        } catch (BlockException e) {
+            return false;
+        } finally {
+            if (entry != null) {
+                if (flow) {
+                    entry.exit();
+                } else {
+                    entry.exit(1, ip);
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.out.printf("%n最后一次改写: %s%n", source.getLastReload());
+        source.close();
+        DeltaFlowRuleManager.clearRules();
+        ParamFlowRuleManager.loadRules(Collections.emptyList());
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RuleFileReloadBenchmark.class.getSimpleName())
+                .shouldDoGC(true)
+                .result("rule_file_reload_results.json")
+                .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.JSON)
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.test;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowItem;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRuleManager;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 全量规则加载的基准测试：FlowRuleManager 加载 N 条独立规则 / ParamFlowRuleManager 加载含 N 个例外项的热点规则
+ *
+ * loadRules 单次计时；配合 GCProfiler 的 gc.alloc.rate.norm 得到每次加载的分配量，
+ * main 中再除以规则数打印每条规则的分配字节数。
+ * reloadUnderLoad 组在1个线程反复加载的同时用3个线程走放行路径，与只放行的 allowOnly 对比，
+ * 得到加载期间放行路径的停顿。
+ *
+ * Sentinel 对与当前值相等的规则列表不做任何处理，所以交替加载阈值不同的两套规则。
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Xms4g", "-XX:+UseG1GC"})
+public class RuleLoadBenchmark {
+
+    private static final String PARAM_RESOURCE = "rule_load_param_resource";
+    // Sentinel最多为6000个资源创建slot chain，放行流量只落在前面的资源上
+    private static final int HOT_IP_COUNT = 5000;
+
+    @Param({"1000", "10000", "50000", "200000"})
+    private int ruleCount;
+
+    @Param({"FLOW", "PARAM_ITEMS"})
+    private String ruleType;
+
+    @Param({"UNIFORM"})
+    private String trafficDistribution;
+
+    private String[] ipAddresses;
+    private String[] flowResources;
+    private List<FlowRule>[] flowRuleSets;
+    private List<ParamFlowRule>[] paramRuleSets;
+    private TrafficDistribution traffic;
+    private boolean flow;
+    private int loads;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void setup() {
+        ipAddresses = new String[ruleCount];
+        flowResources = new String[ruleCount];
+        for (int i = 0; i < ruleCount; i++) {
+            ipAddresses[i] = String.format("10.%d.%d.%d", (i / 65536) % 256, (i / 256) % 256, i % 256);
+            flowResources[i] = "ip_" + ipAddresses[i];
+        }
+
+        traffic = TrafficDistribution.parse(trafficDistribution, Math.min(ruleCount, HOT_IP_COUNT));
+        flow = "FLOW".equals(ruleType);
+        flowRuleSets = (List<FlowRule>[]) new List[2];
+        paramRuleSets = (List<ParamFlowRule>[]) new List[2];
+        for (int set = 0; set < 2; set++) {
+            int qps = 100 + set;
+            if (flow) {
+                flowRuleSets[set] = buildFlowRules(qps);
+            } else {
+                paramRuleSets[set] = Collections.singletonList(buildParamRule(qps));
+            }
+        }
+        loadRules();
+    }
+
+    private List<FlowRule> buildFlowRules(int qps) {
+        List<FlowRule> rules = new ArrayList<>(ruleCount);
+        for (String resource : flowResources) {
+            FlowRule rule = new FlowRule(resource);
+            rule.setGrade(RuleConstant.FLOW_GRADE_QPS);
+            rule.setCount(qps);
+            rules.add(rule);
+        }
+        return rules;
+    }
+
+    private ParamFlowRule buildParamRule(int qps) {
+        List<ParamFlowItem> items = new ArrayList<>(ruleCount);
+        for (String ip : ipAddresses) {
+            items.add(new ParamFlowItem().setObject(ip).setClassType(String.class.getName()).setCount(qps));
+        }
+        return new ParamFlowRule(PARAM_RESOURCE)
+                .setParamIdx(0)
+                .setGrade(RuleConstant.FLOW_GRADE_QPS)
+                .setCount(qps)
+                .setParamFlowItemList(items);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public void loadRules() {
+        int set = loads++ & 1;
+        if (flow) {
+            FlowRuleManager.loadRules(flowRuleSets[set]);
+        } else {
+            ParamFlowRuleManager.loadRules(paramRuleSets[set]);
+        }
+    }
+
+    @Benchmark
+    @Group("reloadUnderLoad")
+    @GroupThreads(1)
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 2, time = 5)
+    @Measurement(iterations = 3, time = 10)
+    public void reload() {
+        loadRules();
+    }
+
+    @Benchmark
+    @Group("reloadUnderLoad")
+    @GroupThreads(3)
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 2, time = 5)
+    @Measurement(iterations = 3, time = 10)
+    public boolean allow() {
+        return allowRequest();
+    }
+
+    @Benchmark
+    @Threads(3)
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 2, time = 5)
+    @Measurement(iterations = 3, time = 10)
+    public boolean allowOnly() {
+        return allowRequest();
+    }
+
+    private boolean allowRequest() {
+        int index = traffic.next();
+        String ip = ipAddresses[index];
+        Entry entry = null;
+        try {
+            if (flow) {
+                entry = SphU.entry(flowResources[index], EntryType.IN);
+            } else {
+                entry = SphU.entry(PARAM_RESOURCE, EntryType.IN, 1, ip);
+            }
+            return true;
+        } catch (BlockException e) {
+            return false;
+        } finally {
+            if (entry != null) {
+                if (flow) {
+                    entry.exit();
+                } else {
+                    entry.exit(1, ip);
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        FlowRuleManager.loadRules(new ArrayList<>());
+        ParamFlowRuleManager.loadRules(new ArrayList<>());
+    }
+
+    /**
+     * 从 GCProfiler 的 gc.alloc.rate.norm（每次加载分配字节数）换算出每条规则的分配量
+     */
+    public static void printAllocationPerRule(Collection<RunResult> results) {
+        System.out.println("\n每条规则的加载分配量:");
+        for (RunResult result : results) {
+            if (!result.getParams().getBenchmark().endsWith(".loadRules")) {
+                continue;
+            }
+            Result<?> allocation = findSecondary(result, "gc.alloc.rate.norm");
+            if (allocation == null) {
+                continue;
+            }
+            int rules = Integer.parseInt(result.getParams().getParam("ruleCount"));
+            System.out.printf("  %-12s 规则数=%,8d  每次加载 %,14.0f B  每条规则 %,8.1f B%n",
+                    result.getParams().getParam("ruleType"), rules,
+                    allocation.getScore(), allocation.getScore() / rules);
+        }
+    }
+
+    // JMH 1.36 的 GCProfiler 结果名带 "·" 前缀，按后缀匹配
+    private static Result<?> findSecondary(RunResult result, String name) {
+        // getSecondaryResults 声明为原始类型 Map<String, Result>，按通配符遍历后逐个检查类型
+        Map<String, ?> secondary = result.getSecondaryResults();
+        for (Map.Entry<String, ?> entry : secondary.entrySet()) {
+            if (entry.getKey().endsWith(name)) {
+                return (Result<?>) entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RuleLoadBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .shouldDoGC(true)
+                .result("rule_load_results.json")
+                .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.JSON)
+                .build();
+
+        printAllocationPerRule(new Runner(options).run());
+    }
+}
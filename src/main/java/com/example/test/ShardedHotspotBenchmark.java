@@ -0,0 +1,86 @@
+package com.example.test;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分片热点参数策略的基准测试：吞吐和P99随分片数的变化
+ *
+ * shardCount=1 时与 HotspotParamStrategy 等价，所有线程争用同一个资源的节点和参数统计。
+ * 默认阈值取得很高，请求基本都放行，测到的是放行路径上的争用而不是拒绝时的异常开销。
+ * 线程数维度由 TestRunner sharding 模式逐档设置。
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Xms4g", "-XX:+UseG1GC"})
+@Threads(64)
+public class ShardedHotspotBenchmark {
+
+    @Param({"1", "2", "4", "8", "16", "32", "64"})
+    private int shardCount;
+
+    @Param({"1000"})
+    private int ipCount;
+
+    @Param({"100000"})
+    private int defaultQps;
+
+    @Param({"UNIFORM"})
+    private String trafficDistribution;
+
+    private List<String> ipAddresses;
+    private ShardedHotspotStrategy strategy;
+    private TrafficDistribution traffic;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ipAddresses = new ArrayList<>(ipCount);
+        for (int i = 0; i < ipCount; i++) {
+            ipAddresses.add(String.format("192.168.%d.%d", (i / 256) % 256, i % 256));
+        }
+        traffic = TrafficDistribution.parse(trafficDistribution, ipCount);
+
+        strategy = new ShardedHotspotStrategy(shardCount);
+        strategy.initRules(ipAddresses, defaultQps);
+        System.out.printf("%n分片热点规则初始化完成: 分片数=%d, IP数=%d, 例外项=%d%n",
+                shardCount, ipCount, strategy.getHotspotParamCount());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public boolean throughput() {
+        return strategy.allowRequest(ipAddresses.get(traffic.next()));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean latency() {
+        return strategy.allowRequest(ipAddresses.get(traffic.next()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        strategy.clearRules();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ShardedHotspotBenchmark.class.getSimpleName())
+                .shouldDoGC(true)
+                .result("sharded_hotspot_results.json")
+                .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.JSON)
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.test;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowItem;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRuleManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 分片热点参数策略
+ *
+ * HotspotParamStrategy 让所有IP经过同一个资源，ClusterNode、每个上下文的DefaultNode和参数统计缓存
+ * 都由全部线程共享。这里把IP按哈希固定映射到 shardCount 个资源之一，每个资源一条 ParamFlowRule，
+ * 只带落在本分片的例外项。同一IP总是落在同一分片，参数统计只存在于该分片的规则上，单IP限流语义不变。
+ *
+ * 例外项的选取方式与 HotspotParamStrategy 相同（前10%的IP，阈值50~200）。
+ */
+public class ShardedHotspotStrategy implements ComparisonPerformanceTest.RateLimitStrategy {
+
+    public static final int DEFAULT_SHARD_COUNT = 16;
+    private static final String RESOURCE_PREFIX = "sharded_hotspot_resource_";
+
+    private final int shardCount;
+    private final double exceptionRatio;
+    private final String[] resources;
+    private List<ParamFlowItem>[] shardItems;
+    private ParamFlowRule[] shardRules;
+    private int defaultQps;
+
+    public ShardedHotspotStrategy() {
+        this(DEFAULT_SHARD_COUNT);
+    }
+
+    public ShardedHotspotStrategy(int shardCount) {
+        this(shardCount, 0.1);
+    }
+
+    public ShardedHotspotStrategy(int shardCount, double exceptionRatio) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("分片数必须大于0: " + shardCount);
+        }
+        this.shardCount = shardCount;
+        this.exceptionRatio = exceptionRatio;
+        resources = new String[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            resources[i] = RESOURCE_PREFIX + i;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void initRules(List<String> ips, int defaultQps) {
+        this.defaultQps = defaultQps;
+        Random random = new Random(42);
+        int hotspotCount = (int) (ips.size() * exceptionRatio);
+
+        shardItems = (List<ParamFlowItem>[]) new List[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shardItems[i] = new ArrayList<>();
+        }
+        for (int i = 0; i < hotspotCount; i++) {
+            String ip = ips.get(i);
+            shardItems[shardOf(ip)].add(newItem(ip, 50 + random.nextInt(150))); // 50-200
+        }
+        shardRules = new ParamFlowRule[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shardRules[i] = newRule(i);
+        }
+        loadAll();
+    }
+
+    /**
+     * IP到分片的映射；String的hashCode有缓存，请求路径上不重复计算
+     */
+    int shardOf(String ip) {
+        return (Ipv4.mix(ip.hashCode()) & Integer.MAX_VALUE) % shardCount;
+    }
+
+    public boolean allowRequest(String ip) {
+        Entry entry = null;
+        try {
+            entry = SphU.entry(resources[shardOf(ip)], EntryType.IN, 1, ip);
+            return true;
+        } catch (BlockException e) {
+            return false;
+        } finally {
+            if (entry != null) {
+                entry.exit(1, ip);
+            }
+        }
+    }
+
+    public void allowRequests(String[] ips, boolean[] out) {
+        BatchGrouper grouper = BatchGrouper.start(ips.length);
+        for (String ip : ips) {
+            grouper.add(ip);
+        }
+        for (int g = 0; g < grouper.groupCount(); g++) {
+            String ip = (String) grouper.key(g);
+            grouper.admit(g, ComparisonPerformanceTest.entryBatch(resources[shardOf(ip)], EntryType.IN,
+                    grouper.count(g), ip), out);
+        }
+    }
+
+    /**
+     * 只重建IP所在分片的规则；ParamFlowRuleManager 只支持全量加载，
+     * 其余分片沿用原有的规则对象，加载时不会被当作旧规则清掉参数统计
+     */
+    public void updateRule(String ip, int newQps) {
+        int shard = shardOf(ip);
+        List<ParamFlowItem> items = new ArrayList<>(shardItems[shard].size() + 1);
+        for (ParamFlowItem item : shardItems[shard]) {
+            if (!item.getObject().equals(ip)) {
+                items.add(item);
+            }
+        }
+        if (newQps != defaultQps) {
+            items.add(newItem(ip, newQps));
+        }
+        shardItems[shard] = items;
+        shardRules[shard] = newRule(shard);
+        loadAll();
+    }
+
+    private ParamFlowRule newRule(int shard) {
+        return new ParamFlowRule(resources[shard])
+                .setParamIdx(0)
+                .setGrade(RuleConstant.FLOW_GRADE_QPS)
+                .setCount(defaultQps)
+                .setParamFlowItemList(shardItems[shard]);
+    }
+
+    private void loadAll() {
+        ParamFlowRuleManager.loadRules(new ArrayList<>(Arrays.asList(shardRules)));
+    }
+
+    private static ParamFlowItem newItem(String ip, int qps) {
+        ParamFlowItem item = new ParamFlowItem();
+        item.setObject(ip);
+        item.setClassType(String.class.getTypeName());
+        item.setCount(qps);
+        return item;
+    }
+
+    public int getRuleCount() {
+        return shardCount;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public void clearRules() {
+        ParamFlowRuleManager.loadRules(new ArrayList<>());
+    }
+
+    public int getHotspotParamCount() {
+        return Arrays.stream(shardItems).mapToInt(List::size).sum();
+    }
+}
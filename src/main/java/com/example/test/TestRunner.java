@@ -7,6 +7,14 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 import org.openjdk.jmh.runner.options.TimeValue;
 import org.openjdk.jmh.results.format.ResultFormatType;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 public class TestRunner {
@@ -25,6 +33,42 @@ public class TestRunner {
                 case "comparison":
                     runComparisonTest();
                     break;
+                case "scaling":
+                    runScalingTest();
+                    break;
+                case "workload":
+                    runWorkloadTest();
+                    break;
+                case "http":
+                    runHttpTest();
+                    break;
+                case "sharding":
+                    runShardingTest();
+                    break;
+                case "cluster":
+                    runClusterTest();
+                    break;
+                case "ruleload":
+                    runRuleLoadTest();
+                    break;
+                case "rulefile":
+                    runRuleFileTest();
+                    break;
+                case "footprint":
+                    runFootprintTest();
+                    break;
+                case "openloop":
+                    runOpenLoopTest();
+                    break;
+                case "baseline":
+                    runSaveBaseline(Arrays.copyOfRange(args, 1, args.length));
+                    break;
+                case "compare":
+                    runCompare(Arrays.copyOfRange(args, 1, args.length));
+                    break;
+                case "report":
+                    runReport();
+                    break;
                 case "quick":
                     runQuickTest();
                     break;
@@ -47,7 +91,7 @@ public class TestRunner {
         System.out.println("=".repeat(80));
         System.out.println("开始完整的Sentinel性能测试套件");
         System.out.println("=".repeat(80));
-        System.out.println("测试时间: " + new java.util.Date());
+        System.out.println("测试时间: " + new Date());
         System.out.println("Java版本: " + System.getProperty("java.version"));
         System.out.println("JVM内存: " + Runtime.getRuntime().maxMemory() / 1024 / 1024 + "MB");
         System.out.println("=".repeat(80));
@@ -142,13 +186,13 @@ public class TestRunner {
     public static void runComparisonTest() throws RunnerException {
         System.out.println("配置: 对比独立规则和热点参数方案的性能差异");
         System.out.println("参数: ipCount = [10, 100, 1000, 5000]");
-        System.out.println("策略: strategyType = [INDEPENDENT, HOTSPOT]");
+        System.out.println("策略: strategyType = [INDEPENDENT, HOTSPOT, CIDR, LOCAL_BUCKET]");
         System.out.println("线程: 1线程并发");
 
         Options options = new OptionsBuilder()
                 .include(ComparisonPerformanceTest.class.getSimpleName())
                 .param("ipCount", "10", "100", "1000", "5000")
-                .param("strategyType", "INDEPENDENT", "HOTSPOT")
+                .param("strategyType", "INDEPENDENT", "HOTSPOT", "CIDR", "LOCAL_BUCKET")
                 .warmupIterations(2)
                 .warmupTime(TimeValue.seconds(5))
                 .measurementIterations(3)
@@ -164,6 +208,285 @@ public class TestRunner {
         new Runner(options).run();
     }
 
+    /**
+     * 运行线程扩展性测试：Sentinel两种方案与本地令牌桶基线在不同线程数下的对比
+     */
+    public static void runScalingTest() throws RunnerException {
+        int[] threadCounts = {10, 50, 100, 200};
+        System.out.println("配置: 对比Sentinel方案与本地令牌桶在不同并发下的性能");
+        System.out.println("参数: ipCount = [1000]");
+        System.out.println("策略: strategyType = [INDEPENDENT, HOTSPOT, LOCAL_BUCKET]");
+        System.out.println("线程: " + Arrays.toString(threadCounts));
+
+        for (int threads : threadCounts) {
+            System.out.printf("%n线程数: %d%n", threads);
+            Options options = new OptionsBuilder()
+                    .include(ComparisonPerformanceTest.class.getSimpleName())
+                    .param("ipCount", "1000")
+                    .param("strategyType", "INDEPENDENT", "HOTSPOT", "LOCAL_BUCKET")
+                    .warmupIterations(2)
+                    .warmupTime(TimeValue.seconds(5))
+                    .measurementIterations(3)
+                    .measurementTime(TimeValue.seconds(5))
+                    .threads(threads)
+                    .forks(1)
+                    .shouldDoGC(true)
+                    .result("scaling_t" + threads + "_results.json")
+                    .resultFormat(ResultFormatType.JSON)
+                    .jvmArgs("-Xmx4g", "-Xms4g", "-XX:+UseG1GC")
+                    .build();
+
+            new Runner(options).run();
+        }
+    }
+
+    /**
+     * 运行负载模型测试：在不同业务负载和1到核数个线程下测限流吞吐，区分限流开销与调度影响
+     */
+    public static void runWorkloadTest() throws RunnerException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("配置: 对比不同业务负载模型下限流吞吐随核数的扩展");
+        System.out.println("参数: workload = [NONE, TOKENS, PARK, SPIN], businessNanos = [100000]");
+        System.out.println("策略: strategyType = [INDEPENDENT, HOTSPOT, LOCAL_BUCKET]");
+        System.out.println("线程: 1 ~ " + cores + " (按2的幂递增)");
+
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < cores; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(cores);
+
+        for (int threads : threadCounts) {
+            System.out.printf("%n线程数: %d%n", threads);
+            Options options = new OptionsBuilder()
+                    .include(ComparisonPerformanceTest.class.getSimpleName())
+                    .param("ipCount", "1000")
+                    .param("strategyType", "INDEPENDENT", "HOTSPOT", "LOCAL_BUCKET")
+                    .param("workload", "NONE", "TOKENS", "PARK", "SPIN")
+                    .param("businessNanos", "100000")
+                    .warmupIterations(2)
+                    .warmupTime(TimeValue.seconds(3))
+                    .measurementIterations(3)
+                    .measurementTime(TimeValue.seconds(5))
+                    .threads(threads)
+                    .forks(1)
+                    .shouldDoGC(true)
+                    .result("workload_t" + threads + "_results.json")
+                    .resultFormat(ResultFormatType.JSON)
+                    .jvmArgs("-Xmx4g", "-Xms4g", "-XX:+UseG1GC")
+                    .build();
+
+            new Runner(options).run();
+        }
+    }
+
+    /**
+     * 运行HTTP端到端测试：进程内启动应用，对比开启和关闭客户端IP限流过滤器时的吞吐和延迟
+     */
+    public static void runHttpTest() {
+        System.out.println("配置: 对比开启/关闭客户端IP限流过滤器时的端到端HTTP性能");
+        System.out.println("参数: ipCount = 1000, 时长 = 20秒");
+        System.out.println("线程: 32线程并发");
+
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        try {
+            for (boolean filterEnabled : new boolean[]{false, true}) {
+                new HttpLoadGenerator(32, 20, 1000).run(filterEnabled);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 运行分片热点测试：分片数与线程数两个维度下的吞吐和P99
+     */
+    public static void runShardingTest() throws RunnerException {
+        int[] threadCounts = {1, 4, 16, 64, 200};
+        System.out.println("配置: 热点参数规则按IP哈希分到多个资源，考察共享节点与参数统计的争用");
+        System.out.println("参数: shardCount = [1, 2, 4, 8, 16, 32, 64], ipCount = [1000]");
+        System.out.println("线程: " + Arrays.toString(threadCounts));
+
+        for (int threads : threadCounts) {
+            System.out.printf("%n线程数: %d%n", threads);
+            Options options = new OptionsBuilder()
+                    .include(ShardedHotspotBenchmark.class.getSimpleName())
+                    .param("shardCount", "1", "2", "4", "8", "16", "32", "64")
+                    .threads(threads)
+                    .forks(1)
+                    .shouldDoGC(true)
+                    .result("sharded_hotspot_t" + threads + "_results.json")
+                    .resultFormat(ResultFormatType.JSON)
+                    .jvmArgs("-Xmx4g", "-Xms4g", "-XX:+UseG1GC")
+                    .build();
+
+            new Runner(options).run();
+        }
+    }
+
+    /**
+     * 运行集群流控测试：单JVM下的令牌往返延迟与慢服务端回退，再以多个JVM共享一个令牌服务端检验全局阈值
+     */
+    public static void runClusterTest() throws RunnerException {
+        int instances = 4;
+        System.out.println("配置: 集群模式FlowRule，Sentinel默认令牌服务端与客户端");
+        System.out.println("参数: serverDelayMillis = [0, 5, 50], requestTimeoutMillis = [20]");
+        System.out.println("多实例: " + instances + " 个JVM同时运行，共享全局阈值");
+
+        Options options = new OptionsBuilder()
+                .include(ClusterTokenBenchmark.class.getSimpleName())
+                .forks(1)
+                .shouldDoGC(true)
+                .result("cluster_token_results.json")
+                .resultFormat(ResultFormatType.JSON)
+                .build();
+        new Runner(options).run();
+
+        try {
+            ClusterTokenBenchmark.runMultiInstance(instances, 16, 1000);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 运行规则加载测试：全量加载耗时、每条规则分配量，以及加载期间放行路径的停顿
+     */
+    public static void runRuleLoadTest() throws RunnerException {
+        System.out.println("配置: 测试FlowRuleManager/ParamFlowRuleManager全量加载的扩展性");
+        System.out.println("参数: ruleCount = [1000, 10000, 50000, 200000]");
+        System.out.println("参数: ruleType = [FLOW, PARAM_ITEMS]");
+        System.out.println("线程: 加载单线程；加载期间放行为1个加载线程 + 3个放行线程");
+
+        Options options = new OptionsBuilder()
+                .include(RuleLoadBenchmark.class.getSimpleName())
+                .param("ruleCount", "1000", "10000", "50000", "200000")
+                .addProfiler(org.openjdk.jmh.profile.GCProfiler.class)
+                .forks(1)
+                .shouldDoGC(true)
+                .result("rule_load_results.json")
+                .resultFormat(ResultFormatType.JSON)
+                .jvmArgs("-Xmx4g", "-Xms4g", "-XX:+UseG1GC")
+                .build();
+
+        RuleLoadBenchmark.printAllocationPerRule(new Runner(options).run());
+    }
+
+    /**
+     * 运行规则文件测试：放行流量进行中改写10万条规则的文件，测量生效延迟和放行路径的延迟尖刺
+     */
+    public static void runRuleFileTest() throws RunnerException {
+        System.out.println("配置: WatchService 监听规则文件，流式解析后只推送变化的IP");
+        System.out.println("参数: ruleCount = [100000], ruleType = [FLOW, PARAM_ITEMS], format = [JSON, COMPACT]");
+        System.out.println("参数: changedPercent = [1, 100]");
+        System.out.println("线程: 1个改写线程 + 3个放行线程，对比只放行");
+
+        Options options = new OptionsBuilder()
+                .include(RuleFileReloadBenchmark.class.getSimpleName())
+                .forks(1)
+                .shouldDoGC(true)
+                .result("rule_file_reload_results.json")
+                .resultFormat(ResultFormatType.JSON)
+                .jvmArgs("-Xmx4g", "-Xms4g", "-XX:+UseG1GC")
+                .build();
+
+        new Runner(options).run();
+    }
+
+    /**
+     * 运行内存占用分析：各策略在不同IP数下每个IP的常驻堆内存
+     */
+    public static void runFootprintTest() {
+        String[] strategies = {"INDEPENDENT", "INDEPENDENT_DELTA", "HOTSPOT", "HOTSPOT_INDEXED", "SHARDED_HOTSPOT", "CIDR", "LOCAL_BUCKET"};
+        String[] ipCounts = {"100", "1000", "5000", "20000"};
+        System.out.println("配置: 用堆直方图差值测量各策略的常驻内存，每组在独立子JVM中测量");
+        System.out.println("策略: " + Arrays.toString(strategies));
+        System.out.println("参数: ipCount = " + Arrays.toString(ipCounts));
+
+        try {
+            FootprintAnalyzer.run(strategies, ipCounts, "footprint_results.csv");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 运行开环测试：按固定到达速率施压，延迟从计划开始时间算起，输出各策略的延迟-吞吐曲线
+     */
+    public static void runOpenLoopTest() {
+        String[] strategies = {"INDEPENDENT", "HOTSPOT", "CIDR", "LOCAL_BUCKET"};
+        int[] rates = {1000, 2000, 5000, 10000, 20000, 50000};
+        System.out.println("配置: 开环泊松到达，速率逐档升高直到超过饱和点");
+        System.out.println("策略: " + Arrays.toString(strategies));
+        System.out.println("速率: " + Arrays.toString(rates) + " 请求/秒，每档10秒");
+        System.out.println("线程: 64个工作线程，业务负载 SPIN 100us");
+
+        try {
+            new OpenLoopDriver(1000, 20, 64, Workload.SPIN, 100_000)
+                    .sweep(strategies, rates, 10, "openloop_results.csv");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 保存基线：把结果文件复制到基线目录，未指定文件时保存标准测试的结果
+     */
+    public static void runSaveBaseline(String[] files) {
+        try {
+            ResultAnalyzer.saveBaselines(resultFiles(files), Paths.get(ResultAnalyzer.DEFAULT_BASELINE_DIR));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 与基线对比：按迭代数据做显著性检验，吞吐或P99显著回归时以退出码1结束
+     */
+    public static void runCompare(String[] files) {
+        System.out.println("配置: 与 " + ResultAnalyzer.DEFAULT_BASELINE_DIR + "/ 中的同名基线对比");
+        System.out.println("判定: 差值95%置信区间不含0且变化超过5%");
+
+        int regressions;
+        try {
+            regressions = ResultAnalyzer.compareWithBaselines(resultFiles(files),
+                    Paths.get(ResultAnalyzer.DEFAULT_BASELINE_DIR));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 生成HTML报告：合并当前目录下的结果文件和延迟阶梯
+     */
+    public static void runReport() {
+        try {
+            Path output = Paths.get(HtmlReportGenerator.DEFAULT_OUTPUT);
+            HtmlReportGenerator.generate(HtmlReportGenerator.findResultFiles(Paths.get(".")),
+                    Paths.get(LatencyRecorder.LADDER_FILE), output);
+            System.out.println("报告已生成: " + output.toAbsolutePath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<String> resultFiles(String[] files) {
+        if (files.length > 0) {
+            return Arrays.asList(files);
+        }
+        return Arrays.asList("independent_rule_results.json", "hotspot_param_results.json",
+                "comparison_results.json", "rule_load_results.json");
+    }
+
     /**
      * 运行快速测试（用于验证）
      */
@@ -235,6 +558,18 @@ public class TestRunner {
         System.out.println("  independent    - 运行独立规则测试");
         System.out.println("  hotspot        - 运行热点参数测试");
         System.out.println("  comparison     - 运行对比测试");
+        System.out.println("  scaling        - 运行线程扩展性测试（含本地令牌桶基线）");
+        System.out.println("  workload       - 运行负载模型测试（限流吞吐随核数扩展）");
+        System.out.println("  http           - 运行HTTP端到端测试（客户端IP限流过滤器开/关）");
+        System.out.println("  sharding       - 运行分片热点测试（分片数×线程数的吞吐与P99）");
+        System.out.println("  cluster        - 运行集群流控测试（令牌往返、慢服务端回退、多JVM全局阈值）");
+        System.out.println("  rulefile       - 运行规则文件测试（负载下改写规则文件的生效延迟与延迟尖刺）");
+        System.out.println("  ruleload       - 运行规则加载测试（加载耗时、分配量、加载期间停顿）");
+        System.out.println("  footprint      - 运行内存占用分析（各策略每IP常驻字节数）");
+        System.out.println("  openloop       - 运行开环测试（延迟-吞吐曲线，避免协调遗漏）");
+        System.out.println("  baseline [文件] - 保存结果为基线（默认标准测试的结果文件）");
+        System.out.println("  compare [文件]  - 与基线对比，显著回归时退出码为1");
+        System.out.println("  report         - 生成HTML报告（合并 *_results.json 与延迟阶梯）");
         System.out.println("  quick          - 运行快速验证测试");
         System.out.println("  full           - 运行完整测试套件（默认）");
         System.out.println();
@@ -242,11 +577,24 @@ public class TestRunner {
         System.out.println("  java -jar benchmarks.jar independent");
         System.out.println("  java -cp ... TestRunner hotspot");
         System.out.println("  java -cp ... TestRunner full");
+        System.out.println("  java --add-opens java.base/java.lang=ALL-UNNAMED -cp ... TestRunner http");
+        System.out.println("  java -cp ... TestRunner compare comparison_results.json");
         System.out.println();
         System.out.println("测试结果:");
         System.out.println("  - 独立规则测试: independent_rule_results.json");
         System.out.println("  - 热点参数测试: hotspot_param_results.json");
         System.out.println("  - 对比测试: comparison_results.json");
+        System.out.println("  - 扩展性测试: scaling_t<线程数>_results.json");
+        System.out.println("  - 负载模型测试: workload_t<线程数>_results.json");
+        System.out.println("  - 分片热点测试: sharded_hotspot_t<线程数>_results.json");
+        System.out.println("  - 集群流控测试: cluster_token_results.json, cluster_c<实例序号>_results.json");
+        System.out.println("  - 规则文件测试: rule_file_reload_results.json");
+        System.out.println("  - 规则加载测试: rule_load_results.json");
+        System.out.println("  - 开环测试: openloop_results.csv");
+        System.out.println("  - 内存占用分析: footprint_results.csv");
+        System.out.println("  - 基线: " + ResultAnalyzer.DEFAULT_BASELINE_DIR + "/<结果文件名>");
+        System.out.println("  - 延迟阶梯: " + LatencyRecorder.LADDER_FILE);
+        System.out.println("  - HTML报告: " + HtmlReportGenerator.DEFAULT_OUTPUT);
     }
 
 
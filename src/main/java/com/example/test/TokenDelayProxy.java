@@ -0,0 +1,148 @@
+package com.example.test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 回环TCP代理，把客户端发往令牌服务端的每段数据推迟 delayMillis 再转发，模拟慢服务端或跨机房链路
+ *
+ * 应答方向不加延迟，一次令牌请求的往返时间增加约 delayMillis。令牌客户端在一条长连接上复用多个并发请求，
+ * 每段数据按各自的到达时间推迟，而不是逐段排队等待，延迟不随并发累积。
+ */
+public class TokenDelayProxy implements AutoCloseable {
+
+    private final int targetPort;
+    private final long delayNanos;
+    private final ServerSocket serverSocket;
+
+    public TokenDelayProxy(int targetPort, long delayMillis) throws IOException {
+        this.targetPort = targetPort;
+        this.delayNanos = TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        this.serverSocket = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "token-proxy-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                Socket server = new Socket();
+                server.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), targetPort));
+                client.setTcpNoDelay(true);
+                server.setTcpNoDelay(true);
+                pump(client, server, delayNanos);
+                pump(server, client, 0);
+            } catch (IOException e) {
+                // 代理关闭
+                return;
+            }
+        }
+    }
+
+    private static void pump(Socket from, Socket to, long delayNanos) {
+        if (delayNanos > 0) {
+            delayedPump(from, to, delayNanos);
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            byte[] buffer = new byte[4096];
+            try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // 任一端断开
+            } finally {
+                closeQuietly(from);
+                closeQuietly(to);
+            }
+        }, "token-proxy-pump");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 读线程给每段数据记下到期时刻放入队列，写线程等到到期再转发
+     */
+    private static void delayedPump(Socket from, Socket to, long delayNanos) {
+        BlockingQueue<Chunk> queue = new LinkedBlockingQueue<>();
+        Thread reader = new Thread(() -> {
+            byte[] buffer = new byte[4096];
+            try (InputStream in = from.getInputStream()) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    queue.add(new Chunk(System.nanoTime() + delayNanos, Arrays.copyOf(buffer, read)));
+                }
+            } catch (IOException e) {
+                // 任一端断开
+            } finally {
+                queue.add(Chunk.END);
+            }
+        }, "token-proxy-reader");
+        Thread writer = new Thread(() -> {
+            try (OutputStream out = to.getOutputStream()) {
+                Chunk chunk;
+                while ((chunk = queue.take()) != Chunk.END) {
+                    long remaining;
+                    while ((remaining = chunk.dueNanos - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(remaining);
+                    }
+                    out.write(chunk.data);
+                    out.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                // 任一端断开
+            } finally {
+                closeQuietly(from);
+                closeQuietly(to);
+            }
+        }, "token-proxy-writer");
+        reader.setDaemon(true);
+        writer.setDaemon(true);
+        reader.start();
+        writer.start();
+    }
+
+    private static final class Chunk {
+        static final Chunk END = new Chunk(0, new byte[0]);
+
+        final long dueNanos;
+        final byte[] data;
+
+        Chunk(long dueNanos, byte[] data) {
+            this.dueNanos = dueNanos;
+            this.data = data;
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // 忽略
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 把访问日志转换为轨迹文件（格式见 {@link TraceWriter}）
+ *
+ * 支持 Common/Combined Log Format（nginx、Apache 默认格式）：
+ *   1.2.3.4 - - [10/Oct/2023:13:55:36 +0800] "GET / HTTP/1.1" 200 ...
+ * 首个字段为客户端IP，方括号内为时间，精度为秒。非IPv4或无法解析的行跳过并计数。
+ * 以 .gz 结尾的输入按gzip解压。
+ *
+ * 参数: [访问日志] [输出轨迹]
+ * 或:   --synthetic [输出轨迹] [事件数] [IP数] [流量分布] [每秒请求数]，按泊松到达生成合成轨迹
+ */
+public class TraceConverter {
+
+    private static final DateTimeFormatter CLF_TIME =
+            DateTimeFormatter.ofPattern("dd/MMM/yyyy:HH:mm:ss Z", Locale.ENGLISH);
+    private static final long REPORT_EVERY = 10_000_000;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && "--synthetic".equals(args[0])) {
+            Path output = Paths.get(args.length > 1 ? args[1] : "synthetic.trace");
+            long events = args.length > 2 ? Long.parseLong(args[2]) : 10_000_000;
+            int ipCount = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+            String distribution = args.length > 4 ? args[4] : "ZIPF:1.1";
+            int rate = args.length > 5 ? Integer.parseInt(args[5]) : 10_000;
+            generate(output, events, ipCount, distribution, rate);
+            System.out.printf("已生成 %,d 个事件: %s%n", events, output);
+            return;
+        }
+        if (args.length < 2) {
+            System.out.println("用法: TraceConverter <访问日志> <输出轨迹>");
+            System.out.println("  或: TraceConverter --synthetic <输出轨迹> [事件数] [IP数] [流量分布] [每秒请求数]");
+            return;
+        }
+
+        long start = System.nanoTime();
+        ConversionResult result = convert(Paths.get(args[0]), Paths.get(args[1]));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("转换完成: %,d 个事件, 跳过 %,d 行, 耗时 %.1f 秒 (%,.0f 行/秒)%n",
+                result.events, result.skipped, seconds, (result.events + result.skipped) / seconds);
+    }
+
+    /**
+     * 逐行转换，内存占用与日志大小无关
+     */
+    public static ConversionResult convert(Path log, Path output) throws IOException {
+        ConversionResult result = new ConversionResult();
+        try (InputStream raw = Files.newInputStream(log);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(
+                     log.toString().endsWith(".gz") ? new GZIPInputStream(raw, 1 << 16) : raw,
+                     StandardCharsets.ISO_8859_1), 1 << 16);
+             TraceWriter writer = new TraceWriter(output)) {
+            // 同一秒的日志行时间字段相同，只在变化时重新解析
+            String lastTime = null;
+            long lastMicros = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int space = line.indexOf(' ');
+                int open = line.indexOf('[', space + 1);
+                int close = open < 0 ? -1 : line.indexOf(']', open + 1);
+                if (space <= 0 || close < 0) {
+                    result.skipped++;
+                    continue;
+                }
+                try {
+                    int ip = Ipv4.parse(line.subSequence(0, space));
+                    String time = line.substring(open + 1, close);
+                    if (!time.equals(lastTime)) {
+                        OffsetDateTime parsed = OffsetDateTime.parse(time, CLF_TIME);
+                        lastMicros = TimeUnit.SECONDS.toMicros(parsed.toEpochSecond());
+                        lastTime = time;
+                    }
+                    writer.write(ip, lastMicros);
+                    if (++result.events % REPORT_EVERY == 0) {
+                        System.out.printf("已转换 %,d 个事件%n", result.events);
+                    }
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    result.skipped++;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 合成轨迹：IP按 distribution 抽样，间隔服从均值 1/rate 的指数分布
+     */
+    public static void generate(Path output, long events, int ipCount, String distribution, int rate)
+            throws IOException {
+        TrafficDistribution traffic = TrafficDistribution.parse(distribution, ipCount);
+        Random random = new Random(42);
+        double meanGapMicros = 1_000_000.0 / rate;
+        double micros = 0;
+        try (TraceWriter writer = new TraceWriter(output)) {
+            for (long i = 0; i < events; i++) {
+                micros += -Math.log(1 - random.nextDouble()) * meanGapMicros;
+                int index = traffic.next((long) micros * 1000, random.nextLong());
+                writer.write(Ipv4.pack(10, index >>> 16, index >>> 8, index), (long) micros);
+            }
+        }
+    }
+
+    public static class ConversionResult {
+        long events;
+        long skipped;
+
+        public long getEvents() {
+            return events;
+        }
+
+        public long getSkipped() {
+            return skipped;
+        }
+    }
+}
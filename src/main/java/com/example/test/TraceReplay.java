@@ -0,0 +1,179 @@
+package com.example.test;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 以内存映射方式回放请求轨迹文件（格式见 {@link TraceWriter}）
+ *
+ * 单个 MappedByteBuffer 最多2GB，文件按 1GB 分段映射，事件下标的高位选段、低位为段内偏移。
+ * 数据留在页缓存中不占堆，十亿级事件的轨迹同样可以回放；操作系统按需换入换出。
+ *
+ * 每个线程从 {@link #slice} 取一个互不重叠的区段，{@link Cursor} 用绝对下标读取，
+ * 线程之间不共享可变状态，读取时不分配对象。
+ */
+public class TraceReplay implements Closeable {
+
+    // 每段 2^27 个事件 = 1GB
+    private static final int SEGMENT_SHIFT = 27;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long eventCount;
+    private final long startEpochMicros;
+
+    public TraceReplay(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(TraceWriter.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // 读满头部
+            }
+            header.flip();
+            if (header.remaining() < TraceWriter.HEADER_BYTES || header.getInt() != TraceWriter.MAGIC) {
+                throw new IOException("不是轨迹文件: " + file);
+            }
+            int version = header.getInt();
+            if (version != TraceWriter.VERSION) {
+                throw new IOException("不支持的轨迹文件版本: " + version);
+            }
+            long declared = header.getLong();
+            startEpochMicros = header.getLong();
+
+            long available = (channel.size() - TraceWriter.HEADER_BYTES) / TraceWriter.RECORD_BYTES;
+            eventCount = Math.min(declared, available);
+
+            int segmentCount = (int) ((eventCount + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            segments = new MappedByteBuffer[segmentCount];
+            for (int s = 0; s < segmentCount; s++) {
+                long first = (long) s << SEGMENT_SHIFT;
+                long records = Math.min(1L << SEGMENT_SHIFT, eventCount - first);
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        TraceWriter.HEADER_BYTES + first * TraceWriter.RECORD_BYTES,
+                        records * TraceWriter.RECORD_BYTES);
+                segments[s].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    public long getStartEpochMicros() {
+        return startEpochMicros;
+    }
+
+    /**
+     * 下标为 index 的事件的打包IP
+     */
+    public int ipAt(long index) {
+        return segments[(int) (index >>> SEGMENT_SHIFT)].getInt((int) (index & SEGMENT_MASK) * TraceWriter.RECORD_BYTES);
+    }
+
+    /**
+     * 下标为 index 的事件距上一个事件的微秒数
+     */
+    public long deltaMicrosAt(long index) {
+        return segments[(int) (index >>> SEGMENT_SHIFT)]
+                .getInt((int) (index & SEGMENT_MASK) * TraceWriter.RECORD_BYTES + 4) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * 把全部事件均分为 sliceCount 段，返回第 sliceIndex 段的游标
+     */
+    public Cursor slice(int sliceIndex, int sliceCount) {
+        if (sliceIndex < 0 || sliceIndex >= sliceCount) {
+            throw new IllegalArgumentException("区段下标越界: " + sliceIndex + "/" + sliceCount);
+        }
+        long from = eventCount * sliceIndex / sliceCount;
+        long to = eventCount * (sliceIndex + 1) / sliceCount;
+        return new Cursor(from, to);
+    }
+
+    /**
+     * 映射在 MappedByteBuffer 被回收时才释放，这里只关闭文件
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * 区段 [from, to) 上的顺序游标，只由一个线程使用
+     */
+    public final class Cursor {
+        private final long from;
+        private final long to;
+        private long position;
+        private int ip;
+        private long offsetMicros;
+
+        Cursor(long from, long to) {
+            this.from = from;
+            this.to = to;
+            this.position = from;
+        }
+
+        /**
+         * 前进到下一个事件，区段读完时返回false
+         */
+        public boolean next() {
+            if (position >= to) {
+                return false;
+            }
+            int segment = (int) (position >>> SEGMENT_SHIFT);
+            int offset = (int) (position & SEGMENT_MASK) * TraceWriter.RECORD_BYTES;
+            ip = segments[segment].getInt(offset);
+            // 区段首个事件的时间作为0点
+            if (position != from) {
+                offsetMicros += segments[segment].getInt(offset + 4) & 0xFFFFFFFFL;
+            }
+            position++;
+            return true;
+        }
+
+        /**
+         * 前进到下一个事件，区段读完后回到开头循环读取
+         */
+        public int nextIp() {
+            if (!next()) {
+                rewind();
+                if (!next()) {
+                    throw new IllegalStateException("空区段");
+                }
+            }
+            return ip;
+        }
+
+        public int ip() {
+            return ip;
+        }
+
+        /**
+         * 当前事件相对区段首个事件的微秒数
+         */
+        public long offsetMicros() {
+            return offsetMicros;
+        }
+
+        public long size() {
+            return to - from;
+        }
+
+        public void rewind() {
+            position = from;
+            offsetMicros = 0;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.test;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 回放请求轨迹的基准测试：按真实访问顺序把IP送入各策略的 allowRequest
+ *
+ * tracePath 为空时先用 TraceConverter 生成一份合成轨迹。每个线程读取轨迹中互不重叠的一段，
+ * 读完后从段首循环；轨迹映射在堆外，每次调用只有一次表查找（打包IP -> 预先格式化的IP字符串）。
+ * 规则加载给轨迹中出现次数最多的 ruleIpCount 个IP，其余IP按各策略对未知IP的处理方式放行或拒绝。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(8)
+public class TraceReplayBenchmark {
+
+    @Param({""})
+    private String tracePath;
+
+    @Param({"INDEPENDENT", "HOTSPOT", "CIDR", "LOCAL_BUCKET"})
+    private String strategyType;
+
+    // Sentinel最多为6000个资源创建slot chain
+    @Param({"5000"})
+    private int ruleIpCount;
+
+    @Param({"100"})
+    private int defaultQps;
+
+    // 以下仅用于生成合成轨迹
+    @Param({"20000000"})
+    private long syntheticEvents;
+
+    @Param({"ZIPF:1.1"})
+    private String syntheticDistribution;
+
+    private Path generatedTrace;
+    private TraceReplay trace;
+    private Ipv4Table ipToName;
+    private String[] names;
+    private ComparisonPerformanceTest.RateLimitStrategy strategy;
+    private final AtomicInteger sliceIndex = new AtomicInteger();
+
+    @State(Scope.Thread)
+    public static class Replayer {
+        TraceReplay.Cursor cursor;
+
+        @Setup(Level.Trial)
+        public void setup(TraceReplayBenchmark benchmark, BenchmarkParams params) {
+            cursor = benchmark.trace.slice(benchmark.sliceIndex.getAndIncrement() % params.getThreads(),
+                    params.getThreads());
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RequestCounters {
+        public long admitted;
+        public long blocked;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            admitted = 0;
+            blocked = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Path path;
+        if (tracePath.isEmpty()) {
+            generatedTrace = Files.createTempFile("replay", ".trace");
+            TraceConverter.generate(generatedTrace, syntheticEvents, 100_000, syntheticDistribution, 10_000);
+            path = generatedTrace;
+        } else {
+            path = Paths.get(tracePath);
+        }
+        trace = new TraceReplay(path);
+
+        // 统计每个IP的出现次数，按次数排序分配名字下标
+        Map<Integer, long[]> counts = new HashMap<>();
+        for (long i = 0; i < trace.getEventCount(); i++) {
+            counts.computeIfAbsent(trace.ipAt(i), k -> new long[1])[0]++;
+        }
+        List<Map.Entry<Integer, long[]>> byCount = new ArrayList<>(counts.entrySet());
+        byCount.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+
+        ipToName = new Ipv4Table(byCount.size());
+        names = new String[byCount.size()];
+        List<String> ruleIps = new ArrayList<>(Math.min(ruleIpCount, byCount.size()));
+        for (int i = 0; i < byCount.size(); i++) {
+            int ip = byCount.get(i).getKey();
+            ipToName.put(ip, i);
+            names[i] = Ipv4.format(ip);
+            if (i < ruleIpCount) {
+                ruleIps.add(names[i]);
+            }
+        }
+
+        strategy = ComparisonPerformanceTest.createStrategy(strategyType);
+        strategy.initRules(ruleIps, defaultQps);
+
+        System.out.printf("%n轨迹: %,d 个事件, %,d 个不同IP, 规则覆盖前 %,d 个IP%n",
+                trace.getEventCount(), names.length, ruleIps.size());
+    }
+
+    @Benchmark
+    public boolean replay(Replayer replayer, RequestCounters counters) {
+        String ip = names[ipToName.get(replayer.cursor.nextIp())];
+        boolean allowed = strategy.allowRequest(ip);
+        if (allowed) {
+            counters.admitted++;
+        } else {
+            counters.blocked++;
+        }
+        return allowed;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        strategy.clearRules();
+        trace.close();
+        if (generatedTrace != null) {
+            Files.deleteIfExists(generatedTrace);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TraceReplayBenchmark.class.getSimpleName())
+                .shouldDoGC(true)
+                .result("trace_replay_results.json")
+                .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.JSON)
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.test;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 请求轨迹文件的写入器
+ *
+ * 文件格式（小端）:
+ *   头部 32 字节: 魔数 "IPTR"(int) | 版本(int) | 事件数(long) | 首个事件的epoch微秒(long) | 保留(long)
+ *   之后每个事件 8 字节: 打包IPv4(int) | 距上一个事件的微秒数(无符号int)
+ *
+ * 定长记录使任意下标的事件都能直接定位，读取端可以按下标把文件切成互不重叠的区段。
+ * 事件数在 close 时回填到头部，写入中断的文件事件数为0。
+ */
+public class TraceWriter implements Closeable {
+
+    static final int MAGIC = 0x52545049;  // "IPTR"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int RECORD_BYTES = 8;
+
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final long MAX_DELTA_MICROS = 0xFFFFFFFFL;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private long count;
+    private long firstMicros;
+    private long lastMicros;
+
+    public TraceWriter(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        channel.position(HEADER_BYTES);
+    }
+
+    /**
+     * 追加一个事件；时间戳早于上一个事件时按间隔0处理，间隔超过 2^32 微秒时截断
+     */
+    public void write(int packedIp, long epochMicros) throws IOException {
+        if (count == 0) {
+            firstMicros = epochMicros;
+            lastMicros = epochMicros;
+        }
+        long delta = Math.min(MAX_DELTA_MICROS, Math.max(0, epochMicros - lastMicros));
+        lastMicros = Math.max(lastMicros, epochMicros);
+
+        if (buffer.remaining() < RECORD_BYTES) {
+            drain();
+        }
+        buffer.putInt(packedIp);
+        buffer.putInt((int) delta);
+        count++;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putLong(count).putLong(firstMicros).putLong(0);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        } finally {
+            channel.close();
+        }
+    }
+}
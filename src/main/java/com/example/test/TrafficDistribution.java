@@ -0,0 +1,230 @@
+package com.example.test;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求IP的流量分布，由各基准测试的 trafficDistribution 参数选择
+ *
+ * UNIFORM              均匀分布（原有行为）
+ * ZIPF:s               排名为k的IP被选中的概率正比于 1/k^s
+ * HOTSET:x:y           x% 的IP承担 y% 的流量，组内均匀
+ * BURSTY:on:off:p      每 on+off 毫秒中的前 on 毫秒，流量集中到 p% 的IP上（每个周期换一批），其余时间均匀
+ *
+ * 非均匀分布预先构建别名表（Vose alias method），每次采样只需一个随机long、一次乘法和一次比较。
+ * 热点IP在下标空间中按固定种子打散，不同策略、不同运行看到的是同一批热点IP。
+ */
+public abstract class TrafficDistribution {
+
+    private static final long SHUFFLE_SEED = 42;
+
+    protected final int size;
+
+    protected TrafficDistribution(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("IP数量必须大于0: " + size);
+        }
+        this.size = size;
+    }
+
+    /**
+     * 解析分布描述，如 "ZIPF:1.1"、"HOTSET:10:90"
+     */
+    public static TrafficDistribution parse(String spec, int size) {
+        String[] parts = spec.trim().toUpperCase().split(":");
+        switch (parts[0]) {
+            case "UNIFORM":
+                return new Uniform(size);
+            case "ZIPF":
+                return zipf(size, parts.length > 1 ? Double.parseDouble(parts[1]) : 1.0);
+            case "HOTSET":
+                return hotSet(size,
+                        parts.length > 1 ? Double.parseDouble(parts[1]) : 10,
+                        parts.length > 2 ? Double.parseDouble(parts[2]) : 90);
+            case "BURSTY":
+                return new Bursty(size,
+                        parts.length > 1 ? Long.parseLong(parts[1]) : 100,
+                        parts.length > 2 ? Long.parseLong(parts[2]) : 400,
+                        parts.length > 3 ? Double.parseDouble(parts[3]) : 1);
+            default:
+                throw new IllegalArgumentException("未知的流量分布: " + spec);
+        }
+    }
+
+    public static TrafficDistribution zipf(int size, double exponent) {
+        int[] order = shuffledOrder(size);
+        double[] weights = new double[size];
+        for (int rank = 0; rank < size; rank++) {
+            weights[order[rank]] = 1.0 / Math.pow(rank + 1, exponent);
+        }
+        return new AliasTable(weights);
+    }
+
+    public static TrafficDistribution hotSet(int size, double hotPercent, double trafficPercent) {
+        int hotCount = (int) Math.max(1, Math.min(size, Math.round(size * hotPercent / 100)));
+        double hotWeight = trafficPercent / 100 / hotCount;
+        double coldWeight = hotCount == size ? 0 : (1 - trafficPercent / 100) / (size - hotCount);
+
+        int[] order = shuffledOrder(size);
+        double[] weights = new double[size];
+        for (int rank = 0; rank < size; rank++) {
+            weights[order[rank]] = rank < hotCount ? hotWeight : coldWeight;
+        }
+        return new AliasTable(weights);
+    }
+
+    /**
+     * 用 ThreadLocalRandom 采样一个下标；与时间无关的分布不读时钟，依赖时间的分布覆盖本方法
+     */
+    public int next() {
+        return next(0, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * 给定时间和64位随机数采样，预生成请求序列时使用
+     *
+     * @return 0 ~ size-1
+     */
+    public abstract int next(long nanoTime, long randomBits);
+
+    public int size() {
+        return size;
+    }
+
+    // 高32位均匀映射到 [0, size)
+    static int uniformColumn(long randomBits, int size) {
+        return (int) (((randomBits >>> 32) * size) >>> 32);
+    }
+
+    private static int[] shuffledOrder(int size) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Random random = new Random(SHUFFLE_SEED);
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        return order;
+    }
+
+    private static final class Uniform extends TrafficDistribution {
+
+        Uniform(int size) {
+            super(size);
+        }
+
+        @Override
+        public int next(long nanoTime, long randomBits) {
+            return uniformColumn(randomBits, size);
+        }
+    }
+
+    /**
+     * 别名表：每列以 threshold 的概率取本列，否则取 alias
+     */
+    private static final class AliasTable extends TrafficDistribution {
+
+        private final int[] threshold;
+        private final int[] alias;
+
+        AliasTable(double[] weights) {
+            super(weights.length);
+            int n = weights.length;
+            threshold = new int[n];
+            alias = new int[n];
+
+            double total = 0;
+            for (double weight : weights) {
+                total += weight;
+            }
+            double[] scaled = new double[n];
+            int[] small = new int[n];
+            int[] large = new int[n];
+            int smallCount = 0;
+            int largeCount = 0;
+            for (int i = 0; i < n; i++) {
+                scaled[i] = weights[i] * n / total;
+                if (scaled[i] < 1) {
+                    small[smallCount++] = i;
+                } else {
+                    large[largeCount++] = i;
+                }
+            }
+
+            while (smallCount > 0 && largeCount > 0) {
+                int less = small[--smallCount];
+                int more = large[--largeCount];
+                threshold[less] = toThreshold(scaled[less]);
+                alias[less] = more;
+                scaled[more] = scaled[more] + scaled[less] - 1;
+                if (scaled[more] < 1) {
+                    small[smallCount++] = more;
+                } else {
+                    large[largeCount++] = more;
+                }
+            }
+            // 剩余列的概率因浮点误差应为1
+            while (largeCount > 0) {
+                int column = large[--largeCount];
+                threshold[column] = Integer.MAX_VALUE;
+                alias[column] = column;
+            }
+            while (smallCount > 0) {
+                int column = small[--smallCount];
+                threshold[column] = Integer.MAX_VALUE;
+                alias[column] = column;
+            }
+        }
+
+        private static int toThreshold(double probability) {
+            return (int) Math.min(Integer.MAX_VALUE, Math.round(probability * Integer.MAX_VALUE));
+        }
+
+        @Override
+        public int next(long nanoTime, long randomBits) {
+            int column = uniformColumn(randomBits, size);
+            return ((int) randomBits & Integer.MAX_VALUE) < threshold[column] ? column : alias[column];
+        }
+    }
+
+    /**
+     * 开关式突发：开启阶段流量落在一段连续的突发下标上，起点每个周期变化
+     */
+    private static final class Bursty extends TrafficDistribution {
+
+        private final long onNanos;
+        private final long periodNanos;
+        private final int burstSize;
+
+        Bursty(int size, long onMillis, long offMillis, double burstPercent) {
+            super(size);
+            this.onNanos = TimeUnit.MILLISECONDS.toNanos(onMillis);
+            this.periodNanos = TimeUnit.MILLISECONDS.toNanos(onMillis + offMillis);
+            this.burstSize = (int) Math.max(1, Math.min(size, Math.round(size * burstPercent / 100)));
+            if (periodNanos <= 0) {
+                throw new IllegalArgumentException("突发周期必须大于0");
+            }
+        }
+
+        @Override
+        public int next() {
+            return next(System.nanoTime(), ThreadLocalRandom.current().nextLong());
+        }
+
+        @Override
+        public int next(long nanoTime, long randomBits) {
+            long period = Math.floorDiv(nanoTime, periodNanos);
+            if (Math.floorMod(nanoTime, periodNanos) >= onNanos) {
+                return uniformColumn(randomBits, size);
+            }
+            int start = Integer.remainderUnsigned(Ipv4.mix((int) period ^ (int) (period >>> 32)), size);
+            int offset = uniformColumn(randomBits, burstSize);
+            return (int) ((start + (long) offset) % size);
+        }
+    }
+}
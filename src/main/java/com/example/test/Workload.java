@@ -0,0 +1,68 @@
+package com.example.test;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 模拟业务处理的负载模型，由各基准测试的 workload 参数选择
+ *
+ * SPIN 忙等待占满CPU（原有行为）；PARK 让出CPU，只模拟等待；
+ * TOKENS 用 Blackhole.consumeCPU 做可校准的计算；NONE 不做任何处理，只测限流开销。
+ * 线程数超过核数时 SPIN 测到的主要是CPU超卖，用 PARK/NONE 可以把限流开销和调度影响分开。
+ */
+public enum Workload {
+
+    SPIN {
+        @Override
+        public void run(long nanos) {
+            long start = System.nanoTime();
+            while (System.nanoTime() - start < nanos) {
+                // 忙等待模拟处理
+            }
+        }
+    },
+
+    PARK {
+        @Override
+        public void run(long nanos) {
+            LockSupport.parkNanos(nanos);
+        }
+    },
+
+    TOKENS {
+        @Override
+        public void run(long nanos) {
+            Blackhole.consumeCPU(Math.max(1, (long) (nanos / NANOS_PER_TOKEN)));
+        }
+    },
+
+    NONE {
+        @Override
+        public void run(long nanos) {
+        }
+    };
+
+    // consumeCPU 每个token的耗时，类加载时校准一次
+    private static final double NANOS_PER_TOKEN = calibrate();
+
+    /**
+     * 执行一次业务处理，nanos 为目标耗时
+     */
+    public abstract void run(long nanos);
+
+    public static double getNanosPerToken() {
+        return NANOS_PER_TOKEN;
+    }
+
+    private static double calibrate() {
+        long tokens = 1 << 20;
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            long start = System.nanoTime();
+            Blackhole.consumeCPU(tokens);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return Math.max(0.1, (double) best / tokens);
+    }
+}